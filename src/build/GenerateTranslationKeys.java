@@ -0,0 +1,166 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Build step generating the enum antafes.utilities.language.TranslationKey from the translation bundles.
+ * Every key of any bundle becomes a constant, documented with its english translation.
+ * Run with the source launcher: java GenerateTranslationKeys.java &lt;bundle folder&gt; &lt;source folder&gt;
+ *
+ * @author Marian Pollzien
+ */
+public class GenerateTranslationKeys
+{
+    private static final String PACKAGE = "antafes.utilities.language";
+    private static final String CLASS = "TranslationKey";
+
+    public static void main(String[] arguments) throws IOException
+    {
+        if (arguments.length != 2) {
+            System.err.println("Usage: java GenerateTranslationKeys.java <bundle folder> <source folder>");
+            System.exit(1);
+        }
+
+        Path bundles = Paths.get(arguments[0]);
+        Path target = Paths.get(arguments[1], PACKAGE.split("\\.")).resolve(CLASS + ".java");
+        TreeMap<String, String> keys = new TreeMap<>();
+        Map<String, String> english = new HashMap<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(bundles, "*.properties")) {
+            for (Path file : files) {
+                Properties properties = load(file);
+
+                for (String key : properties.stringPropertyNames()) {
+                    keys.put(key, toConstant(key));
+
+                    if (file.getFileName().toString().equals("en.properties")) {
+                        english.put(key, properties.getProperty(key));
+                    }
+                }
+            }
+        }
+
+        Map<String, String> constants = new HashMap<>();
+
+        for (Map.Entry<String, String> key : keys.entrySet()) {
+            String previous = constants.put(key.getValue(), key.getKey());
+
+            if (previous != null) {
+                throw new IllegalStateException(
+                    "The keys \"" + previous + "\" and \"" + key.getKey() + "\" both map to " + key.getValue()
+                );
+            }
+        }
+
+        Files.createDirectories(target.getParent());
+
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writer.write("package " + PACKAGE + ";\n\n");
+            writer.write("/**\n");
+            writer.write(" * Keys of all translations, generated from the translation bundles. Do not edit.\n");
+            writer.write(" */\n");
+            writer.write("public enum " + CLASS + "\n{\n");
+            int index = 0;
+
+            for (Map.Entry<String, String> key : keys.entrySet()) {
+                if (english.containsKey(key.getKey())) {
+                    writer.write("    /**\n     * " + escapeComment(english.get(key.getKey())) + "\n     */\n");
+                }
+
+                writer.write("    " + key.getValue() + "(\"" + escapeString(key.getKey()) + "\")");
+                writer.write(++index < keys.size() ? ",\n" : ";\n");
+            }
+
+            if (keys.isEmpty()) {
+                // Without any bundle keys the enum still needs the semicolon ending its empty list of constants.
+                writer.write("    ;\n");
+            }
+
+            writer.write("\n    private final String key;\n\n");
+            writer.write("    " + CLASS + "(String key)\n    {\n        this.key = key;\n    }\n\n");
+            writer.write("    /**\n     * Get the key used in the translation bundles.\n     *\n");
+            writer.write("     * @return The key\n     */\n");
+            writer.write("    public String getKey()\n    {\n        return this.key;\n    }\n}\n");
+        }
+    }
+
+    private static Properties load(Path file) throws IOException
+    {
+        Properties properties = new Properties();
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        return properties;
+    }
+
+    /**
+     * Convert a key to the name of a constant, e.g. "fileMnemonic" to "FILE_MNEMONIC".
+     */
+    private static String toConstant(String key)
+    {
+        StringBuilder constant = new StringBuilder();
+
+        for (int i = 0; i < key.length(); i++) {
+            char character = key.charAt(i);
+
+            if (Character.isUpperCase(character) && i > 0 && !Character.isUpperCase(key.charAt(i - 1))) {
+                constant.append('_');
+            }
+
+            constant.append(Character.isLetterOrDigit(character) ? Character.toUpperCase(character) : '_');
+        }
+
+        if (constant.length() == 0 || !Character.isJavaIdentifierStart(constant.charAt(0))) {
+            constant.insert(0, '_');
+        }
+
+        return constant.toString();
+    }
+
+    private static String escapeComment(String text)
+    {
+        return text.replace("\\", "&#92;")
+            .replace("*/", "*&#47;")
+            .replace("<", "&lt;")
+            .replace(">", "&gt;")
+            .replace("\n", " ");
+    }
+
+    private static String escapeString(String text)
+    {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -28,7 +28,33 @@ import lombok.Getter;
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,61 +62,705 @@ import java.util.logging.Logger;
  * Base configuration
  */
 public abstract class BaseConfiguration implements ConfigurationInterface {
+    private static final ConcurrentHashMap<Path, Object> FILE_LOCKS = new ConcurrentHashMap<>();
+    /**
+     * Constructors of the language classes by class name, looked up once.
+     */
+    private static final ConcurrentHashMap<String, MethodHandle> LANGUAGE_CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    /**
+     * Store holding all properties.
+     */
     @Getter(AccessLevel.PROTECTED)
-    private final Properties properties = new Properties();
-    private final File propertiesFile = new File(this.getBasePath() + "gui.xml");
+    private final ConfigurationStore store = new ConfigurationStore();
+    private File propertiesFile;
+    /**
+     * Live view of the store, created on first use.
+     */
+    private volatile ConfigurationProperties properties;
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    /**
+     * State of the store when the properties file was last loaded or saved. Comparing it with the current state gives
+     * the changes made by this instance.
+     */
+    private volatile ConfigurationSnapshot savedSnapshot;
+    private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean shutdownHookRegistered = new AtomicBoolean(false);
+    /**
+     * Delay in milliseconds between the first unsaved change and writing it in the background, 0 if write behind is
+     * disabled.
+     */
+    @Getter
+    private volatile long writeBehindDelay = 0;
+    /**
+     * Language objects created so far, every language is created only once.
+     */
+    private final ConcurrentHashMap<LanguageInterface, antafes.utilities.language.LanguageInterface> languageObjects =
+        new ConcurrentHashMap<>();
+    private volatile CurrentLanguage currentLanguage;
 
     /**
      * load all saved properties
+     * If the properties file is unreadable, the last known good backup is used instead. A configuration saved as XML
+     * is migrated once if another storage format is used, the XML file is kept.
+     * The saved properties are layered over the defaults, and environment variables and system properties override
+     * them if an override prefix is set. Afterwards the selected language is loaded in the background.
      */
     @Override
     public void loadProperties()
     {
-        if (this.propertiesFile.exists())
+        this.loadStoredProperties();
+        this.store.setLayers(this.getDefaults(), this.getOverrides());
+        this.savedSnapshot = this.store.snapshot();
+        LanguageRegistry.preload(this);
+    }
+
+    private void loadStoredProperties()
+    {
+        File propertiesFile = this.getPropertiesFile();
+        File backupFile = this.getBackupFile();
+
+        if (propertiesFile.exists() || backupFile.exists())
         {
-            try
-            {
-                try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(this.propertiesFile))) {
-                    this.properties.loadFromXML(inputStream);
-                }
+            if (propertiesFile.exists() && this.openProperties(propertiesFile)) {
+                return;
+            }
+
+            if (backupFile.exists() && this.openProperties(backupFile)) {
+                Logger.getLogger(BaseConfiguration.class.getName()).log(
+                    Level.WARNING,
+                    "Restored the configuration from the backup " + backupFile
+                );
             }
-            catch (IOException ignored)
-            {}
         }
-        else
+        else if (this.getStorageFormat() != StorageFormat.XML && this.getLegacyFile().exists())
         {
-            this.properties.setProperty("openDirPath", new File(this.getHomeDirectory()).getPath());
-            this.properties.setProperty("saveDirPath", new File(this.getHomeDirectory()).getPath());
+            if (this.readProperties(this.getLegacyFile(), StorageFormat.XML)) {
+                this.writeProperties();
+            }
+        }
+    }
+
+    /**
+     * Get the default values used for keys that have not been saved. Subclasses may add their own defaults.
+     *
+     * @return Map of keys and default values
+     */
+    protected Map<String, String> getDefaults()
+    {
+        Map<String, String> defaults = new HashMap<>();
+        defaults.put("openDirPath", new File(this.getHomeDirectory()).getPath());
+        defaults.put("saveDirPath", new File(this.getHomeDirectory()).getPath());
+        defaults.put("extendedState", Integer.toString(JFrame.NORMAL));
+
+        return defaults;
+    }
+
+    /**
+     * Get the prefix of environment variables and system properties overriding saved properties. With the prefix
+     * "myapp" the key "windowLocationX" is overridden by the environment variable MYAPP_WINDOW_LOCATION_X and the
+     * system property "myapp.windowLocationX", the system property taking precedence.
+     * Returns null by default, so nothing is overridden.
+     *
+     * @return The prefix or null
+     */
+    protected String getOverridePrefix()
+    {
+        return null;
+    }
+
+    /**
+     * Collect the overrides from the environment and the system properties.
+     *
+     * @return Map of overridden keys and their values
+     */
+    private Map<String, String> getOverrides()
+    {
+        String prefix = this.getOverridePrefix();
+        Map<String, String> overrides = new HashMap<>();
+
+        if (prefix == null || prefix.isEmpty()) {
+            return overrides;
+        }
+
+        String environmentPrefix = toEnvironmentName(prefix) + "_";
+        Map<String, String> knownKeys = null;
+
+        for (Map.Entry<String, String> variable : System.getenv().entrySet()) {
+            if (!variable.getKey().startsWith(environmentPrefix)) {
+                continue;
+            }
+
+            if (knownKeys == null) {
+                knownKeys = new HashMap<>();
+
+                for (String key : this.getDefaults().keySet()) {
+                    knownKeys.put(toEnvironmentName(key), key);
+                }
+
+                for (String key : this.store.keys()) {
+                    knownKeys.put(toEnvironmentName(key), key);
+                }
+            }
+
+            String name = variable.getKey().substring(environmentPrefix.length());
+            overrides.put(knownKeys.getOrDefault(name, fromEnvironmentName(name)), variable.getValue());
+        }
+
+        String propertyPrefix = prefix + ".";
+
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(propertyPrefix)) {
+                overrides.put(name.substring(propertyPrefix.length()), System.getProperty(name));
+            }
+        }
+
+        return overrides;
+    }
+
+    /**
+     * Convert a key to the name of an environment variable, e.g. "windowLocationX" to "WINDOW_LOCATION_X".
+     */
+    private static String toEnvironmentName(String key)
+    {
+        StringBuilder name = new StringBuilder(key.length() + 8);
+
+        for (int i = 0; i < key.length(); i++) {
+            char character = key.charAt(i);
+
+            if (Character.isUpperCase(character) && i > 0 && !Character.isUpperCase(key.charAt(i - 1))) {
+                name.append('_');
+            }
+
+            name.append(Character.isLetterOrDigit(character) ? Character.toUpperCase(character) : '_');
         }
+
+        return name.toString();
+    }
+
+    /**
+     * Convert the name of an environment variable to a key, e.g. "WINDOW_LOCATION_X" to "windowLocationX".
+     */
+    private static String fromEnvironmentName(String name)
+    {
+        StringBuilder key = new StringBuilder(name.length());
+        boolean upperCase = false;
+
+        for (int i = 0; i < name.length(); i++) {
+            char character = name.charAt(i);
+
+            if (character == '_') {
+                upperCase = key.length() > 0;
+            } else {
+                key.append(upperCase ? Character.toUpperCase(character) : Character.toLowerCase(character));
+                upperCase = false;
+            }
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Open the given properties file. Binary files are memory mapped and decoded on demand, all other formats are
+     * read completely.
+     *
+     * @param file The file to open
+     *
+     * @return True if the file has been opened
+     */
+    private boolean openProperties(File file)
+    {
+        if (this.getStorageFormat() != StorageFormat.BINARY) {
+            return this.readProperties(file, this.getStorageFormat());
+        }
+
+        try {
+            this.store.attach(MappedConfigurationFile.open(file));
+        } catch (IOException ex) {
+            Logger.getLogger(BaseConfiguration.class.getName()).log(Level.WARNING, "Unable to read " + file, ex);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Read the properties from the given file. The properties are only replaced if the whole file could be read.
+     *
+     * @param file   The file to read
+     * @param format The format of the file
+     *
+     * @return True if the file has been read
+     */
+    private boolean readProperties(File file, StorageFormat format)
+    {
+        try {
+            this.store.putAll(readValues(file, format));
+        } catch (IOException ex) {
+            Logger.getLogger(BaseConfiguration.class.getName()).log(Level.WARNING, "Unable to read " + file, ex);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Read the properties file again and apply all changes made by others. Keys changed by this instance and not
+     * saved yet are kept.
+     *
+     * @return The applied changes
+     *
+     * @throws IOException If the properties file could not be read
+     */
+    synchronized List<ConfigurationChangeEvent> reloadProperties() throws IOException
+    {
+        Map<String, String> loaded = readValues(this.getPropertiesFile(), this.getStorageFormat());
+        Map<String, String> current = this.store.materialize().getStoredValues();
+        ConfigurationSnapshot saved = this.getSavedSnapshot();
+        Map<String, String> savedValues = saved.getStoredValues();
+        List<ConfigurationChangeEvent> changes = new ArrayList<>();
+        Map<String, String> applied = new HashMap<>();
+
+        for (Map.Entry<String, String> entry : loaded.entrySet()) {
+            String oldValue = current.get(entry.getKey());
+
+            if (!entry.getValue().equals(oldValue) && isUnchanged(entry.getKey(), current, savedValues)) {
+                changes.add(new ConfigurationChangeEvent(this, entry.getKey(), oldValue, entry.getValue()));
+                applied.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            if (!loaded.containsKey(entry.getKey()) && isUnchanged(entry.getKey(), current, savedValues)) {
+                changes.add(new ConfigurationChangeEvent(this, entry.getKey(), entry.getValue(), null));
+                applied.put(entry.getKey(), null);
+            }
+        }
+
+        this.store.update(editor -> applied.forEach((key, value) -> {
+            if (value == null) {
+                editor.remove(key);
+            } else {
+                editor.set(key, value);
+            }
+        }));
+        this.savedSnapshot = applied.isEmpty() ? saved : saved.withChanges(applied);
+
+        return changes;
+    }
+
+    private static Map<String, String> readValues(File file, StorageFormat format) throws IOException
+    {
+        Map<String, String> values = new HashMap<>();
+
+        try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            format.load(inputStream, values);
+        }
+
+        return values;
     }
 
     /**
      * save all properties
+     * If write behind is enabled, the properties are only marked as changed and written in the background.
      */
     @Override
     public void saveProperties()
     {
-        BufferedOutputStream outputStream;
-        try
+        if (this.writeBehindDelay > 0) {
+            this.markDirty();
+
+            return;
+        }
+
+        this.dirty.set(false);
+        this.writeProperties();
+    }
+
+    /**
+     * Write all unsaved changes immediately on the calling thread.
+     */
+    public void flush()
+    {
+        if (this.dirty.getAndSet(false)) {
+            this.writeProperties();
+        }
+    }
+
+    /**
+     * Enable or disable write behind. With write behind enabled, every change marks the configuration as dirty and
+     * a background thread writes it after the given delay. All changes made within the delay are written at once.
+     * Unsaved changes are flushed when the JVM shuts down.
+     *
+     * @param delay Delay in milliseconds, 0 to disable write behind
+     */
+    public void setWriteBehindDelay(long delay)
+    {
+        if (delay < 0) {
+            throw new IllegalArgumentException("The delay must not be negative");
+        }
+
+        this.writeBehindDelay = delay;
+
+        if (delay > 0 && this.shutdownHookRegistered.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "configuration-flush"));
+        }
+
+        if (delay == 0) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Mark the configuration as changed. Subclasses have to call this after changing the store directly.
+     * With write behind enabled, this schedules a background write unless one is already pending.
+     */
+    protected void markDirty()
+    {
+        this.dirty.set(true);
+        long delay = this.writeBehindDelay;
+
+        if (delay > 0 && this.writeScheduled.compareAndSet(false, true)) {
+            BackgroundWriter.EXECUTOR.schedule(() -> {
+                this.writeScheduled.set(false);
+                this.flush();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Set a property and mark the configuration as changed.
+     *
+     * @param key   The key
+     * @param value The value
+     */
+    protected void setProperty(String key, String value)
+    {
+        this.store.set(key, value);
+        this.markDirty();
+    }
+
+    /**
+     * Remove a property and mark the configuration as changed. The key may still be resolved from the defaults or an
+     * override.
+     *
+     * @param key The key
+     */
+    protected void removeProperty(String key)
+    {
+        this.store.remove(key);
+        this.markDirty();
+    }
+
+    /**
+     * Change several properties at once and mark the configuration as changed.
+     *
+     * @param edit Function changing keys through the given editor
+     */
+    void editProperties(Consumer<ConfigurationStore.Editor> edit)
+    {
+        this.store.update(edit);
+        this.markDirty();
+    }
+
+    /**
+     * Set several properties at once and mark the configuration as changed. Readers see either all new values or
+     * none of them.
+     *
+     * @param properties Keys and values
+     */
+    protected void setProperties(Map<String, String> properties)
+    {
+        this.store.putAll(properties);
+        this.markDirty();
+    }
+
+    /**
+     * Write the properties to the properties file.
+     * Other processes may use the same file, so the file is locked while saving. The file is read again under the
+     * lock and only the keys changed by this instance are written over its content, changes of others are kept.
+     * The properties are written to a temporary file in the same directory, which is synced to disk, gets the
+     * permissions and owner of the properties file and is then moved over it. The directory is synced afterwards, so
+     * the rename survives a crash. Readers never see a partially written file. The previous file is kept as backup.
+     */
+    private synchronized void writeProperties()
+    {
+        Path target = this.getPropertiesFile().toPath().toAbsolutePath();
+        Path temporary = null;
+        // File locks are held by the whole JVM, so instances sharing a file within one JVM have to take turns first.
+        Object processLock = FILE_LOCKS.computeIfAbsent(target, path -> new Object());
+
+        synchronized (processLock)
         {
-            if (!this.propertiesFile.exists())
+            try
+            {
+                Files.createDirectories(target.getParent());
+
+                try (
+                    FileChannel lockChannel = FileChannel.open(
+                        target.resolveSibling(target.getFileName() + ".lock"),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE
+                    )
+                ) {
+                    FileLock lock = lockChannel.lock();
+
+                    try {
+                        ConfigurationSnapshot current = this.store.materialize();
+                        Map<String, String> values = this.mergeWithFile(target, current);
+                        temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+                        try (FileOutputStream fileStream = new FileOutputStream(temporary.toFile())) {
+                            BufferedOutputStream outputStream = new BufferedOutputStream(fileStream);
+                            this.getStorageFormat().store(outputStream, values);
+                            outputStream.flush();
+                            fileStream.getChannel().force(true);
+                        }
+
+                        if (Files.exists(target)) {
+                            copyPosixAttributes(target, temporary);
+                            Files.copy(target, this.getBackupFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+                        }
+
+                        try {
+                            Files.move(
+                                temporary,
+                                target,
+                                StandardCopyOption.ATOMIC_MOVE,
+                                StandardCopyOption.REPLACE_EXISTING
+                            );
+                        } catch (AtomicMoveNotSupportedException ex) {
+                            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+                        }
+
+                        syncDirectory(target.getParent());
+
+                        this.savedSnapshot = current;
+                    } finally {
+                        lock.release();
+                    }
+                }
+            }
+            catch (IOException ex)
             {
-                File path = new File(this.propertiesFile.getParent());
+                Logger.getLogger(BaseConfiguration.class.getName()).log(Level.SEVERE, "Unable to save " + target, ex);
+                this.dirty.set(true);
 
-                if (!path.exists()) {
-                    //noinspection ResultOfMethodCallIgnored
-                    path.mkdirs();
+                try {
+                    if (temporary != null) {
+                        Files.deleteIfExists(temporary);
+                    }
+                } catch (IOException ignored) {
                 }
+            }
+        }
+    }
+
+    /**
+     * Copy the permissions, owner and group of a file to another one. Changing the owner usually needs privileges,
+     * so it is only done where allowed. Nothing is copied on file systems without POSIX attributes.
+     *
+     * @param source The file to copy the attributes from
+     * @param target The file to copy the attributes to
+     */
+    private static void copyPosixAttributes(Path source, Path target)
+    {
+        PosixFileAttributeView sourceView = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+
+        if (sourceView == null || targetView == null) {
+            return;
+        }
+
+        PosixFileAttributes attributes;
+
+        try {
+            attributes = sourceView.readAttributes();
+            targetView.setPermissions(attributes.permissions());
+        } catch (IOException ex) {
+            Logger.getLogger(BaseConfiguration.class.getName())
+                .log(Level.WARNING, "Unable to copy the permissions of " + source, ex);
+
+            return;
+        }
+
+        try {
+            targetView.setOwner(attributes.owner());
+        } catch (IOException ignored) {
+        }
+
+        try {
+            targetView.setGroup(attributes.group());
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Sync a directory to disk, making renames inside of it durable. Platforms not able to open directories, like
+     * Windows, are skipped.
+     *
+     * @param directory The directory
+     */
+    private static void syncDirectory(Path directory)
+    {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Apply the changes made by this instance since the last load or save to the content of the properties file.
+     * If the file does not exist or is unreadable, all stored values are written.
+     *
+     * @param target  The properties file
+     * @param current The current state of the store
+     *
+     * @return The values to write
+     */
+    private Map<String, String> mergeWithFile(Path target, ConfigurationSnapshot current)
+    {
+        Map<String, String> values = new TreeMap<>(current.getStoredValues());
+
+        if (!Files.exists(target)) {
+            return values;
+        }
+
+        Map<String, String> merged;
+
+        try {
+            merged = new TreeMap<>(readValues(target.toFile(), this.getStorageFormat()));
+        } catch (IOException ex) {
+            Logger.getLogger(BaseConfiguration.class.getName()).log(Level.WARNING, "Unable to merge " + target, ex);
+
+            return values;
+        }
+
+        Map<String, String> savedValues = this.getSavedSnapshot().getStoredValues();
+        Set<String> keys = new HashSet<>(values.keySet());
+        keys.addAll(savedValues.keySet());
+
+        for (String key : keys) {
+            if (isUnchanged(key, values, savedValues)) {
+                continue;
+            }
+
+            if (values.containsKey(key)) {
+                merged.put(key, values.get(key));
+            } else {
+                merged.remove(key);
+            }
+        }
+
+        return merged;
+    }
+
+    /**
+     * Get the state of the last load or save with all lazily decoded values.
+     *
+     * @return The saved state, empty if nothing has been loaded or saved
+     */
+    private ConfigurationSnapshot getSavedSnapshot()
+    {
+        ConfigurationSnapshot saved = this.savedSnapshot;
+
+        if (saved == null) {
+            return ConfigurationSnapshot.EMPTY;
+        }
+
+        if (saved.isLazy()) {
+            saved = saved.materialize();
+            this.savedSnapshot = saved;
+        }
+
+        return saved;
+    }
+
+    private static boolean isUnchanged(String key, Map<String, String> current, Map<String, String> saved)
+    {
+        return Objects.equals(current.get(key), saved.get(key));
+    }
+
+    /**
+     * Get the value of a property.
+     *
+     * @param key The key
+     *
+     * @return The value or null if the property is not set
+     */
+    protected String getProperty(String key)
+    {
+        return this.store.getString(key);
+    }
+
+    /**
+     * Get the stored properties. The returned object is a live view of the store, reads show the current values and
+     * changes are written to the store like with {@link #setProperty(String, String)}.
+     *
+     * @return The properties
+     */
+    protected Properties getProperties()
+    {
+        ConfigurationProperties properties = this.properties;
+
+        if (properties == null) {
+            synchronized (this.store) {
+                properties = this.properties;
 
-                //noinspection ResultOfMethodCallIgnored
-                this.propertiesFile.createNewFile();
+                if (properties == null) {
+                    properties = new ConfigurationProperties(this);
+                    this.properties = properties;
+                }
             }
+        }
 
-            outputStream = new BufferedOutputStream(new FileOutputStream(this.propertiesFile));
-            this.properties.storeToXML(outputStream, null);
+        return properties;
+    }
+
+    /**
+     * Get the format the configuration is stored in. Defaults to XML.
+     *
+     * @return The storage format
+     */
+    protected StorageFormat getStorageFormat()
+    {
+        return StorageFormat.XML;
+    }
+
+    /**
+     * Get the file the properties are stored in, depending on the storage format.
+     *
+     * @return File object of the properties file
+     */
+    protected File getPropertiesFile()
+    {
+        if (this.propertiesFile == null) {
+            this.propertiesFile = new File(this.getBasePath() + "gui" + this.getStorageFormat().getExtension());
         }
-        catch (IOException ignored)
-        {}
+
+        return this.propertiesFile;
+    }
+
+    /**
+     * Get the backup of the properties file, containing the last successfully saved state before the current one.
+     *
+     * @return File object of the backup
+     */
+    private File getBackupFile()
+    {
+        return new File(this.getPropertiesFile().getPath() + ".bak");
+    }
+
+    /**
+     * Get the XML file used before storage formats were selectable.
+     *
+     * @return File object of the XML file
+     */
+    private File getLegacyFile()
+    {
+        return new File(this.getBasePath() + "gui" + StorageFormat.XML.getExtension());
     }
 
     /**
@@ -101,7 +771,7 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
     @Override
     public File getOpenDirPath()
     {
-        return new File(this.properties.getProperty("openDirPath"));
+        return this.store.get("openDirPath", File.class, File::new);
     }
 
     /**
@@ -118,7 +788,7 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
             filename += ".xml";
         }
 
-        return new File(this.properties.getProperty("saveDirPath") + "/" + filename);
+        return new File(this.getProperty("saveDirPath") + "/" + filename);
     }
 
     /**
@@ -129,7 +799,7 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
     @Override
     public File getSaveDirPath()
     {
-        return new File(this.properties.getProperty("saveDirPath"));
+        return this.store.get("saveDirPath", File.class, File::new);
     }
 
     /**
@@ -142,12 +812,13 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
     public Point getWindowLocation()
     {
         Point point = new Point(0, 0);
-        String pointX = this.properties.getProperty("windowLocationX");
-        String pointY = this.properties.getProperty("windowLocationY");
+        ConfigurationSnapshot snapshot = this.store.snapshot();
+        double pointX = snapshot.getDouble("windowLocationX", Double.NaN);
+        double pointY = snapshot.getDouble("windowLocationY", Double.NaN);
 
-        if (pointX != null && !pointX.isEmpty() && pointY != null && !pointY.isEmpty())
+        if (!Double.isNaN(pointX) && !Double.isNaN(pointY))
         {
-            point.setLocation(Double.parseDouble(pointX), Double.parseDouble(pointY));
+            point.setLocation(pointX, pointY);
         }
 
         return point;
@@ -155,18 +826,14 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
 
     /**
      * Get the extended state of the window. This correlates to the states from JFrame.
-     * If nothing is found in the properties object JFrame.NORMAL is returned.
+     * If nothing is saved or the value is no number, JFrame.NORMAL is returned.
      *
      * @return State according to JFrame
      */
     @Override
     public int getExtendedState()
     {
-        if (this.properties.getProperty("extendedState") == null || this.properties.getProperty("extendedState").equals("")) {
-            this.setExtendedState(JFrame.NORMAL);
-        }
-
-        return Integer.parseInt(this.properties.getProperty("extendedState"));
+        return this.store.getInt("extendedState", JFrame.NORMAL);
     }
 
     /**
@@ -181,7 +848,7 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
             path = new File(path).getParent();
         }
 
-        this.properties.setProperty("openDirPath", path);
+        this.setProperty("openDirPath", path);
     }
 
     /**
@@ -195,7 +862,7 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
         if (new File(path).isFile())
             path = new File(path).getParent();
 
-        this.properties.setProperty("saveDirPath", path);
+        this.setProperty("saveDirPath", path);
     }
 
     /**
@@ -206,8 +873,10 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
     @Override
     public void setWindowLocation(Point point)
     {
-        this.properties.setProperty("windowLocationX", String.valueOf(point.getX()));
-        this.properties.setProperty("windowLocationY", String.valueOf(point.getY()));
+        Map<String, String> location = new HashMap<>();
+        location.put("windowLocationX", String.valueOf(point.getX()));
+        location.put("windowLocationY", String.valueOf(point.getY()));
+        this.setProperties(location);
     }
 
     /**
@@ -218,7 +887,7 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
     @Override
     public void setExtendedState(int extendedState)
     {
-        this.properties.setProperty("extendedState", Integer.toString(extendedState));
+        this.setProperty("extendedState", Integer.toString(extendedState));
     }
 
     /**
@@ -228,7 +897,8 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
      */
     @Override
     public void setLanguage(LanguageInterface language) {
-        properties.setProperty("language", language.toString());
+        this.setProperty("language", language.toString());
+        this.currentLanguage = null;
     }
 
     /**
@@ -238,24 +908,94 @@ public abstract class BaseConfiguration implements ConfigurationInterface {
      */
     public LanguageInterface getLanguage()
     {
-        return LanguageInterface.valueOf(this.properties.getProperty("language"));
+        return LanguageInterface.valueOf(this.getProperty("language"));
     }
 
     /**
      * Get a language object from the currently selected language.
+     * Language objects are created once per language and reused afterwards.
      *
-     * @return Language object fetched from the enum of the currently selected language
+     * @return Language object fetched from the enum of the currently selected language, null if none is selected
      */
     public antafes.utilities.language.LanguageInterface getLanguageObject()
     {
-        antafes.utilities.language.LanguageInterface language = null;
+        LanguageInterface language = this.getLanguage();
+        CurrentLanguage current = this.currentLanguage;
 
+        if (language == null) {
+            return null;
+        }
+
+        if (current != null && current.language == language) {
+            return current.languageObject;
+        }
+
+        antafes.utilities.language.LanguageInterface languageObject = this.languageObjects.computeIfAbsent(
+            language,
+            BaseConfiguration::createLanguageObject
+        );
+
+        if (languageObject != null) {
+            this.currentLanguage = new CurrentLanguage(language, languageObject);
+        }
+
+        return languageObject;
+    }
+
+    /**
+     * Create the language object of the given language.
+     *
+     * @param language The language
+     *
+     * @return The language object or null if it could not be created
+     */
+    static antafes.utilities.language.LanguageInterface createLanguageObject(LanguageInterface language)
+    {
         try {
-            language = (antafes.utilities.language.LanguageInterface) Class.forName(this.getLanguage().getLanguageString()).newInstance();
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException ex) {
+            MethodHandle constructor = LANGUAGE_CONSTRUCTORS.get(language.getLanguageString());
+
+            if (constructor == null) {
+                constructor = MethodHandles.publicLookup()
+                    .findConstructor(Class.forName(language.getLanguageString()), MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(antafes.utilities.language.LanguageInterface.class));
+                LANGUAGE_CONSTRUCTORS.putIfAbsent(language.getLanguageString(), constructor);
+            }
+
+            return (antafes.utilities.language.LanguageInterface) constructor.invokeExact();
+        } catch (Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
             Logger.getLogger(Configuration.class.getName()).log(Level.SEVERE, null, ex);
         }
 
-        return language;
+        return null;
+    }
+
+    /**
+     * The selected language and its language object, replaced whenever the selected language changes.
+     */
+    private static final class CurrentLanguage {
+        private final LanguageInterface language;
+        private final antafes.utilities.language.LanguageInterface languageObject;
+
+        private CurrentLanguage(LanguageInterface language, antafes.utilities.language.LanguageInterface languageObject)
+        {
+            this.language = language;
+            this.languageObject = languageObject;
+        }
+    }
+
+    /**
+     * Holder of the background writer, the thread is only created once write behind is used.
+     */
+    private static class BackgroundWriter {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "configuration-writer");
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        );
     }
-}
\ No newline at end of file
+}
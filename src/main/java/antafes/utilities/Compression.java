@@ -0,0 +1,147 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.deflate.DeflateCompressorInputStream;
+import org.apache.commons.compress.compressors.deflate.DeflateCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compression codecs available for tar archives.
+ *
+ * @author Marian Pollzien
+ */
+public enum Compression
+{
+    NONE {
+        @Override
+        public OutputStream compress(OutputStream outputStream)
+        {
+            return outputStream;
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream)
+        {
+            return inputStream;
+        }
+    },
+    GZIP {
+        @Override
+        public OutputStream compress(OutputStream outputStream) throws IOException
+        {
+            return new GzipCompressorOutputStream(outputStream);
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream) throws IOException
+        {
+            return new GzipCompressorInputStream(inputStream);
+        }
+    },
+    BZIP2 {
+        @Override
+        public OutputStream compress(OutputStream outputStream) throws IOException
+        {
+            return new BZip2CompressorOutputStream(outputStream);
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream) throws IOException
+        {
+            return new BZip2CompressorInputStream(inputStream);
+        }
+    },
+    DEFLATE {
+        @Override
+        public OutputStream compress(OutputStream outputStream)
+        {
+            return new DeflateCompressorOutputStream(outputStream);
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream)
+        {
+            return new DeflateCompressorInputStream(inputStream);
+        }
+    },
+    /**
+     * LZ4 frame format, considerably faster than gzip at a lower compression ratio.
+     */
+    LZ4 {
+        @Override
+        public OutputStream compress(OutputStream outputStream) throws IOException
+        {
+            return new FramedLZ4CompressorOutputStream(outputStream);
+        }
+
+        @Override
+        public InputStream decompress(InputStream inputStream) throws IOException
+        {
+            return new FramedLZ4CompressorInputStream(inputStream);
+        }
+    };
+
+    /**
+     * Get the compression matching the old gzip flag.
+     *
+     * @param gzip Whether gzip is used
+     *
+     * @return GZIP or NONE
+     */
+    public static Compression of(boolean gzip)
+    {
+        return gzip ? GZIP : NONE;
+    }
+
+    /**
+     * Wrap the given stream with a compressing stream.
+     *
+     * @param outputStream The stream receiving the compressed data
+     *
+     * @return The compressing stream
+     *
+     * @throws IOException If the compressor could not be created
+     */
+    public abstract OutputStream compress(OutputStream outputStream) throws IOException;
+
+    /**
+     * Wrap the given stream with a decompressing stream.
+     *
+     * @param inputStream The stream providing the compressed data
+     *
+     * @return The decompressing stream
+     *
+     * @throws IOException If the decompressor could not be created
+     */
+    public abstract InputStream decompress(InputStream inputStream) throws IOException;
+}
@@ -22,6 +22,7 @@
 
 package antafes.utilities;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import javax.swing.*;
@@ -48,17 +49,42 @@ public class Configuration extends BaseConfiguration {
 
         private final String languageString;
         private final String name;
-        private final ImageIcon icon;
+        @Getter(AccessLevel.NONE)
+        private final String iconPath;
+        @Getter(AccessLevel.NONE)
+        private volatile ImageIcon icon;
 
         Language(String languageString, String name, String iconPath) {
             this.languageString = languageString;
             this.name = name;
+            this.iconPath = iconPath;
+        }
+
+        /**
+         * Get the flag of the language. The image is loaded on first use.
+         *
+         * @return The icon
+         */
+        @Override
+        public ImageIcon getIcon() {
+            ImageIcon icon = this.icon;
+
+            if (icon == null) {
+                synchronized (this) {
+                    icon = this.icon;
+
+                    if (icon == null) {
+                        Toolkit kit = Toolkit.getDefaultToolkit();
+                        Image img = kit.createImage(
+                            Utilities.getResourceInJar(this.iconPath)
+                        );
+                        icon = new ImageIcon(img);
+                        this.icon = icon;
+                    }
+                }
+            }
 
-            Toolkit kit = Toolkit.getDefaultToolkit();
-            Image img = kit.createImage(
-                Utilities.getResourceInJar(iconPath)
-            );
-            this.icon = new ImageIcon(img);
+            return icon;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import lombok.Getter;
+
+import java.util.EventObject;
+
+/**
+ * Event describing the change of a single configuration key.
+ *
+ * @author Marian Pollzien
+ */
+@Getter
+public class ConfigurationChangeEvent extends EventObject
+{
+    private static final long serialVersionUID = 1L;
+
+    private final String key;
+    private final String oldValue;
+    private final String newValue;
+
+    /**
+     * Create a new change event.
+     *
+     * @param source   The changed configuration
+     * @param key      The changed key
+     * @param oldValue Value before the change, null if the key has been added
+     * @param newValue Value after the change, null if the key has been removed
+     */
+    public ConfigurationChangeEvent(ConfigurationInterface source, String key, String oldValue, String newValue)
+    {
+        super(source);
+        this.key = key;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    @Override
+    public ConfigurationInterface getSource()
+    {
+        return (ConfigurationInterface) super.getSource();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.getClass().getSimpleName() + "[key=" + this.key + ", oldValue=" + this.oldValue
+            + ", newValue=" + this.newValue + "]";
+    }
+}
@@ -22,36 +22,121 @@
 
 package antafes.utilities;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Factory creating one configuration object per configuration class.
+ * Every class gets its own instance, created on first use. Later calls only perform a volatile read.
+ */
 public class ConfigurationFactory {
-    private static ConfigurationInterface configuration;
+    private static final ClassValue<Holder> HOLDERS = new ClassValue<Holder>() {
+        @Override
+        protected Holder computeValue(Class<?> type)
+        {
+            return new Holder(type);
+        }
+    };
+    /**
+     * The first configuration created, returned by {@link #getConfiguration()}.
+     */
+    private static final AtomicReference<ConfigurationInterface> PRIMARY = new AtomicReference<>();
 
     /**
-     * Get the basic configuration object provided by this package.
+     * Get the configuration object created first. If none has been created yet, the basic configuration provided
+     * by this package is created.
      *
-     * @return Basic configuration
+     * @return The first created configuration
      */
     public static ConfigurationInterface getConfiguration()
     {
+        ConfigurationInterface configuration = PRIMARY.get();
+
+        if (configuration != null) {
+            return configuration;
+        }
+
         return getConfiguration(Configuration.class);
     }
 
     /**
-     * Get the given configuration object.
+     * Get the configuration object of the given class. The object is created once per class.
+     *
+     * @param configuration The configuration class
+     * @param <T>           Type of the configuration
      *
-     * @param configuration The configuration object to create
+     * @return Configuration object of the given class
      *
-     * @return Given configuration object
+     * @throws IllegalStateException If the configuration could not be created
+     */
+    public static <T extends ConfigurationInterface> T getConfiguration(Class<T> configuration)
+    {
+        return configuration.cast(HOLDERS.get(configuration).getInstance());
+    }
+
+    /**
+     * Lazily created instance of one configuration class.
      */
-    public static ConfigurationInterface getConfiguration(Class<? extends ConfigurationInterface> configuration)
+    private static final class Holder
     {
-        if (ConfigurationFactory.configuration == null) {
+        private final Class<?> type;
+        private final MethodHandle constructor;
+        private final ReflectiveOperationException lookupFailure;
+        private volatile ConfigurationInterface instance;
+
+        private Holder(Class<?> type)
+        {
+            MethodHandle constructor = null;
+            ReflectiveOperationException lookupFailure = null;
+
             try {
-                ConfigurationFactory.configuration = configuration.newInstance();
-            } catch (InstantiationException | IllegalAccessException ignored) {
-                // This should never happen!
+                constructor = MethodHandles.lookup().findConstructor(type, MethodType.methodType(void.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                lookupFailure = e;
+            }
+
+            this.type = type;
+            this.constructor = constructor;
+            this.lookupFailure = lookupFailure;
+        }
+
+        private ConfigurationInterface getInstance()
+        {
+            ConfigurationInterface instance = this.instance;
+
+            if (instance == null) {
+                synchronized (this) {
+                    instance = this.instance;
+
+                    if (instance == null) {
+                        instance = this.create();
+                        this.instance = instance;
+                        PRIMARY.compareAndSet(null, instance);
+                    }
+                }
             }
+
+            return instance;
         }
 
-        return ConfigurationFactory.configuration;
+        private ConfigurationInterface create()
+        {
+            if (this.lookupFailure != null) {
+                throw new IllegalStateException(
+                    "No accessible default constructor in " + this.type.getName(),
+                    this.lookupFailure
+                );
+            }
+
+            try {
+                return (ConfigurationInterface) this.constructor.invoke();
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Unable to create configuration " + this.type.getName(), e);
+            }
+        }
     }
 }
@@ -62,8 +62,15 @@ public interface ConfigurationInterface {
         public String getName();
         public ImageIcon getIcon();
 
+        /**
+         * Get the language saved with the given name from the {@link LanguageRegistry}.
+         *
+         * @param name Name of the language
+         *
+         * @return The language or null if there is none with this name
+         */
         public static LanguageInterface valueOf(String name) {
-            return null;
+            return LanguageRegistry.valueOf(name);
         }
     }
 }
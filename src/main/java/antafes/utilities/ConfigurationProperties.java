@@ -0,0 +1,607 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Live view of the stored values of a configuration as {@link Properties}.
+ * Nothing is kept in the view itself, every read goes to the store and every change is written to it and marks the
+ * configuration as changed, so the view always shows the current values. Defaults and overrides are not included.
+ * Keys and values have to be strings, as the store only holds strings.
+ *
+ * @author Marian Pollzien
+ */
+final class ConfigurationProperties extends Properties
+{
+    private static final long serialVersionUID = 1L;
+
+    private final transient BaseConfiguration configuration;
+
+    ConfigurationProperties(BaseConfiguration configuration)
+    {
+        this.configuration = configuration;
+    }
+
+    private Map<String, String> stored()
+    {
+        return this.configuration.getStore().getStoredValues();
+    }
+
+    private String value(Object key)
+    {
+        return key instanceof String ? this.configuration.getStore().getStoredValue((String) key) : null;
+    }
+
+    @Override
+    public int size()
+    {
+        return this.stored().size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return this.stored().isEmpty();
+    }
+
+    @Override
+    public Enumeration<Object> keys()
+    {
+        return Collections.enumeration(new HashSet<Object>(this.stored().keySet()));
+    }
+
+    @Override
+    public Enumeration<Object> elements()
+    {
+        return Collections.enumeration(new HashSet<Object>(this.stored().values()));
+    }
+
+    @Override
+    public Enumeration<?> propertyNames()
+    {
+        return this.keys();
+    }
+
+    @Override
+    public Set<String> stringPropertyNames()
+    {
+        return Collections.unmodifiableSet(new HashSet<>(this.stored().keySet()));
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+        return this.containsValue(value);
+    }
+
+    @Override
+    public boolean containsValue(Object value)
+    {
+        return this.stored().containsValue(Objects.requireNonNull(value));
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return this.value(key) != null;
+    }
+
+    @Override
+    public Object get(Object key)
+    {
+        return this.value(key);
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue)
+    {
+        String value = this.value(key);
+
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public String getProperty(String key)
+    {
+        return this.value(key);
+    }
+
+    @Override
+    public String getProperty(String key, String defaultValue)
+    {
+        String value = this.value(key);
+
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public synchronized Object put(Object key, Object value)
+    {
+        String previous = this.value(Objects.requireNonNull(key));
+        this.configuration.setProperty((String) key, (String) Objects.requireNonNull(value));
+
+        return previous;
+    }
+
+    @Override
+    public synchronized void putAll(Map<?, ?> values)
+    {
+        Map<String, String> properties = new HashMap<>();
+
+        for (Map.Entry<?, ?> entry : values.entrySet()) {
+            properties.put((String) entry.getKey(), (String) Objects.requireNonNull(entry.getValue()));
+        }
+
+        this.configuration.setProperties(properties);
+    }
+
+    @Override
+    public synchronized Object remove(Object key)
+    {
+        String previous = this.value(Objects.requireNonNull(key));
+
+        if (previous != null) {
+            this.configuration.removeProperty((String) key);
+        }
+
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean remove(Object key, Object value)
+    {
+        if (value == null || !value.equals(this.value(key))) {
+            return false;
+        }
+
+        this.configuration.removeProperty((String) key);
+
+        return true;
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        Set<String> keys = this.stored().keySet();
+
+        if (!keys.isEmpty()) {
+            this.configuration.editProperties(editor -> keys.forEach(editor::remove));
+        }
+    }
+
+    @Override
+    public synchronized Object putIfAbsent(Object key, Object value)
+    {
+        String previous = this.value(Objects.requireNonNull(key));
+
+        if (previous == null) {
+            this.put(key, value);
+        }
+
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean replace(Object key, Object oldValue, Object newValue)
+    {
+        if (oldValue == null || !oldValue.equals(this.value(key))) {
+            return false;
+        }
+
+        this.put(key, newValue);
+
+        return true;
+    }
+
+    @Override
+    public synchronized Object replace(Object key, Object value)
+    {
+        String previous = this.value(key);
+
+        if (previous != null) {
+            this.put(key, value);
+        }
+
+        return previous;
+    }
+
+    @Override
+    public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function)
+    {
+        Map<String, String> properties = new HashMap<>();
+
+        for (Map.Entry<String, String> entry : this.stored().entrySet()) {
+            Object value = function.apply(entry.getKey(), entry.getValue());
+            properties.put(entry.getKey(), (String) Objects.requireNonNull(value));
+        }
+
+        this.configuration.setProperties(properties);
+    }
+
+    @Override
+    public synchronized Object computeIfAbsent(Object key, Function<? super Object, ?> function)
+    {
+        String value = this.value(Objects.requireNonNull(key));
+
+        if (value != null) {
+            return value;
+        }
+
+        Object computed = function.apply(key);
+
+        if (computed != null) {
+            this.put(key, computed);
+        }
+
+        return computed;
+    }
+
+    @Override
+    public synchronized Object computeIfPresent(
+        Object key,
+        BiFunction<? super Object, ? super Object, ?> function
+    ) {
+        String value = this.value(Objects.requireNonNull(key));
+
+        if (value == null) {
+            return null;
+        }
+
+        return this.apply(key, function.apply(key, value));
+    }
+
+    @Override
+    public synchronized Object compute(Object key, BiFunction<? super Object, ? super Object, ?> function)
+    {
+        return this.apply(Objects.requireNonNull(key), function.apply(key, this.value(key)));
+    }
+
+    @Override
+    public synchronized Object merge(
+        Object key,
+        Object value,
+        BiFunction<? super Object, ? super Object, ?> function
+    ) {
+        String previous = this.value(Objects.requireNonNull(key));
+
+        return this.apply(key, previous == null ? Objects.requireNonNull(value) : function.apply(previous, value));
+    }
+
+    /**
+     * Store the result of a computation, null removes the key.
+     */
+    private Object apply(Object key, Object value)
+    {
+        if (value == null) {
+            this.remove(key);
+        } else {
+            this.put(key, value);
+        }
+
+        return value;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super Object, ? super Object> action)
+    {
+        this.stored().forEach(action);
+    }
+
+    @Override
+    public Set<Object> keySet()
+    {
+        return new AbstractSet<Object>()
+        {
+            @Override
+            public Iterator<Object> iterator()
+            {
+                Iterator<Map.Entry<Object, Object>> entries = ConfigurationProperties.this.entrySet().iterator();
+
+                return new Iterator<Object>()
+                {
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Object next()
+                    {
+                        return entries.next().getKey();
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        entries.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return ConfigurationProperties.this.size();
+            }
+
+            @Override
+            public boolean contains(Object key)
+            {
+                return ConfigurationProperties.this.containsKey(key);
+            }
+
+            @Override
+            public boolean remove(Object key)
+            {
+                return ConfigurationProperties.this.remove(key) != null;
+            }
+
+            @Override
+            public void clear()
+            {
+                ConfigurationProperties.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Collection<Object> values()
+    {
+        return new AbstractCollection<Object>()
+        {
+            @Override
+            public Iterator<Object> iterator()
+            {
+                Iterator<Map.Entry<Object, Object>> entries = ConfigurationProperties.this.entrySet().iterator();
+
+                return new Iterator<Object>()
+                {
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Object next()
+                    {
+                        return entries.next().getValue();
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        entries.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return ConfigurationProperties.this.size();
+            }
+
+            @Override
+            public boolean contains(Object value)
+            {
+                return value != null && ConfigurationProperties.this.containsValue(value);
+            }
+
+            @Override
+            public void clear()
+            {
+                ConfigurationProperties.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Get the entries of the view. Iterating works on the values at the start of the iteration, removing through the
+     * iterator and setting values of entries changes the store.
+     *
+     * @return Set of entries
+     */
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<Object, Object>>()
+        {
+            @Override
+            public Iterator<Map.Entry<Object, Object>> iterator()
+            {
+                Iterator<Map.Entry<String, String>> entries =
+                    ConfigurationProperties.this.stored().entrySet().iterator();
+
+                return new Iterator<Map.Entry<Object, Object>>()
+                {
+                    private String current;
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<Object, Object> next()
+                    {
+                        Map.Entry<String, String> entry = entries.next();
+                        this.current = entry.getKey();
+
+                        return new LiveEntry(entry.getKey(), entry.getValue());
+                    }
+
+                    @Override
+                    public void remove()
+                    {
+                        if (this.current == null) {
+                            throw new IllegalStateException();
+                        }
+
+                        ConfigurationProperties.this.remove(this.current);
+                        this.current = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return ConfigurationProperties.this.size();
+            }
+
+            @Override
+            public boolean contains(Object object)
+            {
+                if (!(object instanceof Map.Entry)) {
+                    return false;
+                }
+
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+
+                return entry.getValue() != null && entry.getValue().equals(
+                    ConfigurationProperties.this.value(entry.getKey())
+                );
+            }
+
+            @Override
+            public boolean remove(Object object)
+            {
+                if (!(object instanceof Map.Entry)) {
+                    return false;
+                }
+
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+
+                return ConfigurationProperties.this.remove(entry.getKey(), entry.getValue());
+            }
+
+            @Override
+            public void clear()
+            {
+                ConfigurationProperties.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public void list(PrintStream out)
+    {
+        this.copy().list(out);
+    }
+
+    @Override
+    public void list(PrintWriter out)
+    {
+        this.copy().list(out);
+    }
+
+    @Override
+    public synchronized Object clone()
+    {
+        return this.copy();
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return this.stored().toString();
+    }
+
+    @Override
+    public synchronized boolean equals(Object other)
+    {
+        return other == this || (other instanceof Map && this.stored().equals(other));
+    }
+
+    @Override
+    public synchronized int hashCode()
+    {
+        return this.stored().hashCode();
+    }
+
+    @Override
+    protected void rehash()
+    {
+    }
+
+    /**
+     * Copy the current values into plain properties.
+     */
+    private Properties copy()
+    {
+        Properties properties = new Properties();
+        properties.putAll(this.stored());
+
+        return properties;
+    }
+
+    /**
+     * Serialize the current values as plain properties, the view can't be restored without its configuration.
+     */
+    private Object writeReplace()
+    {
+        return this.copy();
+    }
+
+    /**
+     * Entry whose value is written to the store when set.
+     */
+    private final class LiveEntry extends AbstractMap.SimpleEntry<Object, Object>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private LiveEntry(String key, String value)
+        {
+            super(key, value);
+        }
+
+        @Override
+        public Object setValue(Object value)
+        {
+            ConfigurationProperties.this.put(this.getKey(), value);
+
+            return super.setValue(value);
+        }
+    }
+}
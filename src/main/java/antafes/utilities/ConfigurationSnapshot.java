@@ -0,0 +1,458 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Immutable state of a {@link ConfigurationStore}. All values read from one snapshot belong to the same state, so
+ * keys changed together are always seen together.
+ *
+ * Values are resolved from three layers: defaults, the stored values and overrides. The winning value of every key is
+ * kept in a flattened map, so a lookup is a single hash map access no matter how many layers exist. Every value keeps
+ * the last parsed form next to its string, so typed getters only parse a value once after it has been set.
+ *
+ * @author Marian Pollzien
+ */
+public final class ConfigurationSnapshot
+{
+    static final ConfigurationSnapshot EMPTY = new ConfigurationSnapshot(
+        Collections.emptyMap(),
+        Collections.emptyMap(),
+        Collections.emptyMap(),
+        Collections.emptyMap(),
+        null,
+        null
+    );
+    /**
+     * Marks keys missing in the lazily decoded file, so the file is only probed once per key.
+     */
+    private static final Value ABSENT = new Value(null, true);
+
+    private final Map<String, Value> values;
+    private final Map<String, Value> resolved;
+    private final Map<String, Value> defaults;
+    private final Map<String, Value> overrides;
+    /**
+     * Lazily decoded file, consulted for keys not changed since loading.
+     */
+    private final MappedConfigurationFile lazyValues;
+    /**
+     * Values decoded from the lazy file, {@link #ABSENT} for keys missing in it. The file is immutable, so the cache
+     * is shared by all snapshots using it.
+     */
+    private final ConcurrentHashMap<String, Value> lazyCache;
+
+    private ConfigurationSnapshot(
+        Map<String, Value> values,
+        Map<String, Value> resolved,
+        Map<String, Value> defaults,
+        Map<String, Value> overrides,
+        MappedConfigurationFile lazyValues,
+        ConcurrentHashMap<String, Value> lazyCache
+    ) {
+        this.values = values;
+        this.resolved = resolved;
+        this.defaults = defaults;
+        this.overrides = overrides;
+        this.lazyValues = lazyValues;
+        this.lazyCache = lazyCache;
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key The key
+     *
+     * @return The value or null if the key is not set
+     */
+    public String getString(String key)
+    {
+        Value value = this.getValue(key);
+
+        return value == null ? null : value.raw;
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key          The key
+     * @param defaultValue Value returned if the key is not set
+     *
+     * @return The value or the default value
+     */
+    public String getString(String key, String defaultValue)
+    {
+        Value value = this.getValue(key);
+
+        return value == null ? defaultValue : value.raw;
+    }
+
+    /**
+     * Get the value of a key as integer.
+     *
+     * @param key          The key
+     * @param defaultValue Value returned if the key is not set or not a number
+     *
+     * @return The value or the default value
+     */
+    public int getInt(String key, int defaultValue)
+    {
+        Integer value = this.get(key, Integer.class, Integer::valueOf);
+
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Get the value of a key as long.
+     *
+     * @param key          The key
+     * @param defaultValue Value returned if the key is not set or not a number
+     *
+     * @return The value or the default value
+     */
+    public long getLong(String key, long defaultValue)
+    {
+        Long value = this.get(key, Long.class, Long::valueOf);
+
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Get the value of a key as double.
+     *
+     * @param key          The key
+     * @param defaultValue Value returned if the key is not set or not a number
+     *
+     * @return The value or the default value
+     */
+    public double getDouble(String key, double defaultValue)
+    {
+        Double value = this.get(key, Double.class, Double::valueOf);
+
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Get the value of a key as boolean.
+     *
+     * @param key          The key
+     * @param defaultValue Value returned if the key is not set
+     *
+     * @return The value or the default value
+     */
+    public boolean getBoolean(String key, boolean defaultValue)
+    {
+        Boolean value = this.get(key, Boolean.class, Boolean::valueOf);
+
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Get the value of a key parsed by the given parser. The parsed value is cached until the key changes or is
+     * read as another type.
+     *
+     * @param key    The key
+     * @param type   The type of the parsed value
+     * @param parser Parser creating the value from its string
+     * @param <T>    The type of the parsed value
+     *
+     * @return The parsed value or null if the key is not set or the parser rejected the value
+     */
+    public <T> T get(String key, Class<T> type, Function<String, ? extends T> parser)
+    {
+        Value value = this.getValue(key);
+
+        if (value == null) {
+            return null;
+        }
+
+        Object parsed = value.parsed;
+
+        if (type.isInstance(parsed)) {
+            return type.cast(parsed);
+        }
+
+        T result;
+
+        try {
+            result = parser.apply(value.raw);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        value.parsed = result;
+
+        return result;
+    }
+
+    /**
+     * Check whether a key is set.
+     *
+     * @param key The key
+     *
+     * @return True if the key is set
+     */
+    public boolean contains(String key)
+    {
+        return this.getValue(key) != null;
+    }
+
+    /**
+     * Check whether values are still decoded from a file on demand.
+     *
+     * @return True if a lazily decoded file is used
+     */
+    boolean isLazy()
+    {
+        return this.lazyValues != null;
+    }
+
+    /**
+     * Get the keys resolved from any layer. Keys only present in a lazily decoded file are missing.
+     *
+     * @return Unmodifiable set of the keys
+     */
+    Set<String> keys()
+    {
+        return Collections.unmodifiableSet(this.resolved.keySet());
+    }
+
+    /**
+     * Get a stored value. Values only present in a lazily decoded file are missing.
+     *
+     * @param key The key
+     *
+     * @return The value or null if the key is not stored
+     */
+    String getStoredValue(String key)
+    {
+        Value value = this.values.get(key);
+
+        return value != null ? value.raw : null;
+    }
+
+    /**
+     * Get the stored values. Values only present in a lazily decoded file are missing.
+     *
+     * @return Unmodifiable map of the stored values
+     */
+    Map<String, String> getStoredValues()
+    {
+        Map<String, String> values = new HashMap<>();
+        this.values.forEach((key, value) -> values.put(key, value.raw));
+
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Create a snapshot with the given changes applied to the stored values.
+     *
+     * @param changes Changed keys and their new values, null removes a key
+     *
+     * @return The new snapshot
+     */
+    ConfigurationSnapshot withChanges(Map<String, String> changes)
+    {
+        // A removed key must not show up again from the lazy file, so the file is copied completely first.
+        if (this.lazyValues != null && changes.containsValue(null)) {
+            return this.materialize().withChanges(changes);
+        }
+
+        Map<String, Value> values = new HashMap<>(this.values);
+
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            if (change.getValue() == null) {
+                values.remove(change.getKey());
+            } else {
+                values.put(change.getKey(), new Value(change.getValue(), false));
+            }
+        }
+
+        return this.with(values, changes.keySet(), this.defaults, this.overrides, this.lazyValues, this.lazyCache);
+    }
+
+    /**
+     * Create a snapshot with other defaults and overrides.
+     *
+     * @param defaults  Values used for keys that are not stored
+     * @param overrides Values taking precedence over the stored ones
+     *
+     * @return The new snapshot
+     */
+    ConfigurationSnapshot withLayers(Map<String, String> defaults, Map<String, String> overrides)
+    {
+        Set<String> keys = new HashSet<>(this.resolved.keySet());
+        keys.addAll(defaults.keySet());
+        keys.addAll(overrides.keySet());
+
+        return this.with(
+            this.values,
+            keys,
+            toValues(defaults, true),
+            toValues(overrides, false),
+            this.lazyValues,
+            this.lazyCache
+        );
+    }
+
+    /**
+     * Create a snapshot using the given file for keys that are not stored.
+     *
+     * @param file The lazily decoded file
+     *
+     * @return The new snapshot
+     */
+    ConfigurationSnapshot withLazyValues(MappedConfigurationFile file)
+    {
+        return new ConfigurationSnapshot(
+            this.values,
+            this.resolved,
+            this.defaults,
+            this.overrides,
+            file,
+            new ConcurrentHashMap<>()
+        );
+    }
+
+    /**
+     * Create a snapshot with all values of the lazily decoded file copied into the stored values.
+     *
+     * @return The new snapshot
+     */
+    ConfigurationSnapshot materialize()
+    {
+        if (this.lazyValues == null) {
+            return this;
+        }
+
+        Map<String, Value> values = new HashMap<>(this.values);
+        Set<String> keys = new HashSet<>();
+
+        this.lazyValues.forEach((key, raw) -> {
+            if (!values.containsKey(key)) {
+                Value cached = this.lazyCache.get(key);
+                values.put(key, cached != null ? cached : new Value(raw, false));
+                keys.add(key);
+            }
+        });
+
+        return this.with(values, keys, this.defaults, this.overrides, null, null);
+    }
+
+    private ConfigurationSnapshot with(
+        Map<String, Value> values,
+        Set<String> changedKeys,
+        Map<String, Value> defaults,
+        Map<String, Value> overrides,
+        MappedConfigurationFile lazyValues,
+        ConcurrentHashMap<String, Value> lazyCache
+    ) {
+        Map<String, Value> resolved = new HashMap<>(this.resolved);
+
+        for (String key : changedKeys) {
+            Value value = overrides.get(key);
+
+            if (value == null) {
+                value = values.get(key);
+            }
+
+            if (value == null) {
+                value = defaults.get(key);
+            }
+
+            if (value == null) {
+                resolved.remove(key);
+            } else {
+                resolved.put(key, value);
+            }
+        }
+
+        return new ConfigurationSnapshot(values, resolved, defaults, overrides, lazyValues, lazyCache);
+    }
+
+    private Value getValue(String key)
+    {
+        Value value = this.resolved.get(key);
+
+        // A default may still be overridden by a value in the lazily decoded file.
+        if (this.lazyValues == null || (value != null && !value.fallback)) {
+            return value;
+        }
+
+        Value cached = this.lazyCache.get(key);
+
+        if (cached != null) {
+            return cached == ABSENT ? value : cached;
+        }
+
+        String raw = this.lazyValues.get(key);
+
+        if (raw == null) {
+            this.lazyCache.putIfAbsent(key, ABSENT);
+
+            return value;
+        }
+
+        cached = new Value(raw, false);
+        Value existing = this.lazyCache.putIfAbsent(key, cached);
+
+        return existing != null ? existing : cached;
+    }
+
+    private static Map<String, Value> toValues(Map<String, String> map, boolean fallback)
+    {
+        Map<String, Value> values = new HashMap<>();
+        map.forEach((key, value) -> values.put(key, new Value(value, fallback)));
+
+        return values;
+    }
+
+    /**
+     * A raw value and the last form it has been parsed to.
+     */
+    private static final class Value
+    {
+        private final String raw;
+        /**
+         * Whether the value is a default, which a value from the lazily decoded file replaces.
+         */
+        private final boolean fallback;
+        /**
+         * Parsed value, racing threads parse the same value, so a plain volatile field is sufficient.
+         */
+        private volatile Object parsed;
+
+        private Value(String raw, boolean fallback)
+        {
+            this.raw = raw;
+            this.fallback = fallback;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Key value store of a configuration, holding an immutable {@link ConfigurationSnapshot}.
+ * Readers take the current snapshot with a single volatile read and never wait. Writers create a new snapshot and
+ * publish it atomically, so keys changed together with {@link #update(Consumer)} are never seen half updated.
+ * Readers needing several keys consistently should read them from one {@link #snapshot()}.
+ *
+ * Only the stored values are written to the properties file, defaults and overrides are not.
+ *
+ * @author Marian Pollzien
+ */
+public class ConfigurationStore
+{
+    private final AtomicReference<ConfigurationSnapshot> snapshot = new AtomicReference<>(ConfigurationSnapshot.EMPTY);
+
+    /**
+     * Get the current snapshot.
+     *
+     * @return The current snapshot
+     */
+    public ConfigurationSnapshot snapshot()
+    {
+        return this.snapshot.get();
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key The key
+     *
+     * @return The value or null if the key is not set
+     */
+    public String getString(String key)
+    {
+        return this.snapshot().getString(key);
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key          The key
+     * @param defaultValue Value returned if the key is not set
+     *
+     * @return The value or the default value
+     */
+    public String getString(String key, String defaultValue)
+    {
+        return this.snapshot().getString(key, defaultValue);
+    }
+
+    /**
+     * Get the value of a key as integer.
+     *
+     * @param key          The key
+     * @param defaultValue Value returned if the key is not set or not a number
+     *
+     * @return The value or the default value
+     */
+    public int getInt(String key, int defaultValue)
+    {
+        return this.snapshot().getInt(key, defaultValue);
+    }
+
+    /**
+     * Get the value of a key as long.
+     *
+     * @param key          The key
+     * @param defaultValue Value returned if the key is not set or not a number
+     *
+     * @return The value or the default value
+     */
+    public long getLong(String key, long defaultValue)
+    {
+        return this.snapshot().getLong(key, defaultValue);
+    }
+
+    /**
+     * Get the value of a key as double.
+     *
+     * @param key          The key
+     * @param defaultValue Value returned if the key is not set or not a number
+     *
+     * @return The value or the default value
+     */
+    public double getDouble(String key, double defaultValue)
+    {
+        return this.snapshot().getDouble(key, defaultValue);
+    }
+
+    /**
+     * Get the value of a key as boolean.
+     *
+     * @param key          The key
+     * @param defaultValue Value returned if the key is not set
+     *
+     * @return The value or the default value
+     */
+    public boolean getBoolean(String key, boolean defaultValue)
+    {
+        return this.snapshot().getBoolean(key, defaultValue);
+    }
+
+    /**
+     * Get the value of a key parsed by the given parser. The parsed value is cached until the key changes or is
+     * read as another type.
+     *
+     * @param key    The key
+     * @param type   The type of the parsed value
+     * @param parser Parser creating the value from its string
+     * @param <T>    The type of the parsed value
+     *
+     * @return The parsed value or null if the key is not set or the parser rejected the value
+     */
+    public <T> T get(String key, Class<T> type, Function<String, ? extends T> parser)
+    {
+        return this.snapshot().get(key, type, parser);
+    }
+
+    /**
+     * Set the stored value of a key. An override of the key still takes precedence.
+     *
+     * @param key   The key
+     * @param value The value
+     */
+    public void set(String key, String value)
+    {
+        this.update(editor -> editor.set(key, value));
+    }
+
+    /**
+     * Remove the stored value of a key. The key may still be resolved from the defaults or an override.
+     *
+     * @param key The key
+     */
+    public void remove(String key)
+    {
+        this.update(editor -> editor.remove(key));
+    }
+
+    /**
+     * Change several keys at once. Readers either see all changes or none of them.
+     * The editing function may be called more than once if another thread changes the store at the same time, so it
+     * must not have side effects besides editing.
+     *
+     * @param edit Function changing keys through the given editor
+     */
+    public void update(Consumer<Editor> edit)
+    {
+        this.publish(snapshot -> {
+            Editor editor = new Editor();
+            edit.accept(editor);
+
+            return editor.changes.isEmpty() ? snapshot : snapshot.withChanges(editor.changes);
+        });
+    }
+
+    /**
+     * Check whether a key is set.
+     *
+     * @param key The key
+     *
+     * @return True if the key is set
+     */
+    public boolean contains(String key)
+    {
+        return this.snapshot().contains(key);
+    }
+
+    /**
+     * Get all keys resolved from any layer.
+     *
+     * @return Unmodifiable set of the keys
+     */
+    public Set<String> keys()
+    {
+        return this.materialize().keys();
+    }
+
+    /**
+     * Get a copy of the stored keys and values, sorted by key. Defaults and overrides are not included.
+     *
+     * @return Map of all stored keys and values
+     */
+    public Map<String, String> toMap()
+    {
+        return new TreeMap<>(this.materialize().getStoredValues());
+    }
+
+    /**
+     * Get the stored value of a key. Defaults and overrides are not included.
+     *
+     * @param key The key
+     *
+     * @return The value or null if the key is not stored
+     */
+    String getStoredValue(String key)
+    {
+        return this.materialize().getStoredValue(key);
+    }
+
+    /**
+     * Get the stored keys and values. Defaults and overrides are not included.
+     *
+     * @return Unmodifiable map of all stored keys and values
+     */
+    Map<String, String> getStoredValues()
+    {
+        return this.materialize().getStoredValues();
+    }
+
+    /**
+     * Set all given keys at once.
+     *
+     * @param map Keys and values
+     */
+    void putAll(Map<String, String> map)
+    {
+        this.update(editor -> map.forEach(editor::set));
+    }
+
+    /**
+     * Replace the defaults and the overrides and resolve all keys again.
+     *
+     * @param defaults  Values used for keys that are not stored
+     * @param overrides Values taking precedence over the stored ones
+     */
+    void setLayers(Map<String, String> defaults, Map<String, String> overrides)
+    {
+        this.publish(snapshot -> snapshot.withLayers(defaults, overrides));
+    }
+
+    /**
+     * Use the given file for keys that are not set in this store.
+     *
+     * @param file The lazily decoded file
+     */
+    void attach(MappedConfigurationFile file)
+    {
+        this.publish(snapshot -> snapshot.withLazyValues(file));
+    }
+
+    /**
+     * Copy all remaining values of the lazily decoded file into the stored values.
+     *
+     * @return The snapshot without lazily decoded file
+     */
+    ConfigurationSnapshot materialize()
+    {
+        return this.publish(ConfigurationSnapshot::materialize);
+    }
+
+    /**
+     * Replace the snapshot with the result of the given function, retrying if another thread was faster.
+     */
+    private ConfigurationSnapshot publish(UnaryOperator<ConfigurationSnapshot> change)
+    {
+        while (true) {
+            ConfigurationSnapshot current = this.snapshot.get();
+            ConfigurationSnapshot next = change.apply(current);
+
+            if (next == current || this.snapshot.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Collects the changes of a multi key update.
+     */
+    public static final class Editor
+    {
+        private final Map<String, String> changes = new LinkedHashMap<>();
+
+        private Editor()
+        {
+        }
+
+        /**
+         * Set the stored value of a key.
+         *
+         * @param key   The key
+         * @param value The value
+         *
+         * @return This editor
+         */
+        public Editor set(String key, String value)
+        {
+            this.changes.put(Objects.requireNonNull(key), Objects.requireNonNull(value));
+
+            return this;
+        }
+
+        /**
+         * Remove the stored value of a key.
+         *
+         * @param key The key
+         *
+         * @return This editor
+         */
+        public Editor remove(String key)
+        {
+            this.changes.put(Objects.requireNonNull(key), null);
+
+            return this;
+        }
+    }
+}
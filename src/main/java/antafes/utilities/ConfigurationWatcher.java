@@ -0,0 +1,231 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches the properties file of a configuration and reloads it when it is changed by someone else.
+ * Rapid modifications are debounced into a single reload. Listeners are notified about every changed key on the
+ * thread of the watcher, so listeners updating the GUI have to pass the work to the event dispatch thread.
+ *
+ * @author Marian Pollzien
+ */
+public class ConfigurationWatcher implements Closeable
+{
+    private static final long DEFAULT_DEBOUNCE_DELAY = 200;
+
+    private final BaseConfiguration configuration;
+    private final long debounceDelay;
+    private final List<ConfigurationChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService executor;
+    private WatchService watchService;
+    private ScheduledFuture<?> pendingReload;
+
+    /**
+     * Create a watcher with a debounce delay of 200 milliseconds.
+     *
+     * @param configuration The configuration to reload
+     */
+    public ConfigurationWatcher(BaseConfiguration configuration)
+    {
+        this(configuration, DEFAULT_DEBOUNCE_DELAY);
+    }
+
+    /**
+     * Create a watcher.
+     *
+     * @param configuration The configuration to reload
+     * @param debounceDelay Time in milliseconds without further modifications before the file is reloaded
+     */
+    public ConfigurationWatcher(BaseConfiguration configuration, long debounceDelay)
+    {
+        if (debounceDelay < 0) {
+            throw new IllegalArgumentException("The delay must not be negative");
+        }
+
+        this.configuration = configuration;
+        this.debounceDelay = debounceDelay;
+    }
+
+    /**
+     * Add a listener notified about every changed key.
+     *
+     * @param listener The listener
+     */
+    public void addChangeListener(ConfigurationChangeListener listener)
+    {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener.
+     *
+     * @param listener The listener
+     */
+    public void removeChangeListener(ConfigurationChangeListener listener)
+    {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Start watching the properties file. A closed watcher may be started again.
+     *
+     * @throws IOException If the directory of the properties file can't be watched
+     */
+    public synchronized void start() throws IOException
+    {
+        if (this.watchService != null) {
+            return;
+        }
+
+        Path file = this.configuration.getPropertiesFile().toPath().toAbsolutePath();
+        WatchService watchService = FileSystems.getDefault().newWatchService();
+
+        try {
+            file.getParent().register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE
+            );
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+
+        this.watchService = watchService;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "configuration-reload");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        Thread thread = new Thread(() -> this.watch(watchService, file.getFileName()), "configuration-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop watching the properties file. A pending reload is dropped.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (this.watchService != null) {
+            this.watchService.close();
+            this.watchService = null;
+        }
+
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+            this.pendingReload = null;
+        }
+    }
+
+    private void watch(WatchService watchService, Path fileName)
+    {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                        this.scheduleReload();
+                    }
+                }
+
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+        }
+    }
+
+    /**
+     * Schedule a reload, replacing a pending one, so a burst of modifications only causes one reload.
+     */
+    private synchronized void scheduleReload()
+    {
+        if (this.executor == null) {
+            return;
+        }
+
+        if (this.pendingReload != null) {
+            this.pendingReload.cancel(false);
+        }
+
+        this.pendingReload = this.executor.schedule(this::reload, this.debounceDelay, TimeUnit.MILLISECONDS);
+    }
+
+    private void reload()
+    {
+        if (!this.configuration.getPropertiesFile().exists()) {
+            return;
+        }
+
+        List<ConfigurationChangeEvent> changes;
+
+        try {
+            changes = this.configuration.reloadProperties();
+        } catch (IOException ex) {
+            Logger.getLogger(ConfigurationWatcher.class.getName()).log(
+                Level.WARNING,
+                "Unable to reload " + this.configuration.getPropertiesFile(),
+                ex
+            );
+
+            return;
+        }
+
+        for (ConfigurationChangeEvent change : changes) {
+            for (ConfigurationChangeListener listener : this.listeners) {
+                try {
+                    listener.configurationChanged(change);
+                } catch (RuntimeException ex) {
+                    Logger.getLogger(ConfigurationWatcher.class.getName()).log(Level.WARNING, null, ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import antafes.utilities.language.Language;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registry of all selectable languages, shared by all threads.
+ * The languages are discovered once through the {@link LanguageProvider} services, further languages may be
+ * registered at runtime. Languages are identified by their type together with the name they are saved with in the
+ * configuration. If languages of several types share a name, looking up the name alone gives the one registered
+ * first.
+ *
+ * @author Marian Pollzien
+ */
+public final class LanguageRegistry
+{
+    private static final Logger LOGGER = Logger.getLogger(LanguageRegistry.class.getName());
+
+    private LanguageRegistry()
+    {
+    }
+
+    /**
+     * Get all registered languages in the order of their registration.
+     *
+     * @return Unmodifiable list of languages
+     */
+    public static List<ConfigurationInterface.LanguageInterface> getLanguages()
+    {
+        return Collections.unmodifiableList(Languages.LIST);
+    }
+
+    /**
+     * Get the language saved with the given name.
+     *
+     * @param name Name of the language, as returned by its toString method
+     *
+     * @return The language or null if there is none with this name
+     */
+    public static ConfigurationInterface.LanguageInterface valueOf(String name)
+    {
+        return name == null ? null : Languages.BY_NAME.get(name);
+    }
+
+    /**
+     * Get the language of the given type saved with the given name.
+     *
+     * @param type Type of the language, e.g. the enum class
+     * @param name Name of the language, as returned by its toString method
+     *
+     * @return The language or null if there is none of this type with this name
+     */
+    public static ConfigurationInterface.LanguageInterface valueOf(Class<?> type, String name)
+    {
+        return name == null ? null : Languages.BY_TYPE.get(Languages.key(type, name));
+    }
+
+    /**
+     * Create the language object of a language, providing its translations.
+     *
+     * @param language The language
+     *
+     * @return A new language object or null if it could not be created
+     */
+    public static antafes.utilities.language.LanguageInterface createLanguageObject(
+        ConfigurationInterface.LanguageInterface language
+    ) {
+        return BaseConfiguration.createLanguageObject(language);
+    }
+
+    /**
+     * Register a language. Languages of the same type and name as one already registered are ignored.
+     *
+     * @param language The language
+     *
+     * @return True if the language has been registered
+     */
+    public static boolean register(ConfigurationInterface.LanguageInterface language)
+    {
+        return Languages.add(language);
+    }
+
+    /**
+     * Load the selected language of the given configuration in the background, so its translations and icon are
+     * ready when needed. All other languages stay unloaded until used.
+     *
+     * @param configuration The configuration
+     *
+     * @return Future completed once the language has been loaded
+     */
+    public static CompletableFuture<Void> preload(ConfigurationInterface configuration)
+    {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                ConfigurationInterface.LanguageInterface language = configuration.getLanguage();
+
+                if (language == null) {
+                    return;
+                }
+
+                antafes.utilities.language.LanguageInterface languageObject = configuration.getLanguageObject();
+
+                if (languageObject instanceof Language) {
+                    ((Language) languageObject).preload();
+                }
+
+                language.getIcon();
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Unable to preload the selected language", ex);
+            }
+        }, Preloader.EXECUTOR);
+    }
+
+    /**
+     * Holder of the registered languages, discovered on first use.
+     */
+    private static final class Languages
+    {
+        private static final ConcurrentHashMap<String, ConfigurationInterface.LanguageInterface> BY_NAME =
+            new ConcurrentHashMap<>();
+        private static final ConcurrentHashMap<String, ConfigurationInterface.LanguageInterface> BY_TYPE =
+            new ConcurrentHashMap<>();
+        private static final List<ConfigurationInterface.LanguageInterface> LIST = new CopyOnWriteArrayList<>();
+
+        static {
+            Iterator<LanguageProvider> providers = ServiceLoader.load(LanguageProvider.class).iterator();
+
+            while (true) {
+                try {
+                    if (!providers.hasNext()) {
+                        break;
+                    }
+
+                    for (ConfigurationInterface.LanguageInterface language : providers.next().getLanguages()) {
+                        add(language);
+                    }
+                } catch (ServiceConfigurationError | RuntimeException ex) {
+                    // A broken provider must not hide the languages of the others.
+                    LOGGER.log(Level.WARNING, "Unable to load the languages of a provider", ex);
+                }
+            }
+        }
+
+        private static synchronized boolean add(ConfigurationInterface.LanguageInterface language)
+        {
+            String name = language.toString();
+
+            if (BY_TYPE.putIfAbsent(key(typeOf(language), name), language) != null) {
+                return false;
+            }
+
+            ConfigurationInterface.LanguageInterface existing = BY_NAME.putIfAbsent(name, language);
+
+            if (existing != null) {
+                LOGGER.warning(
+                    "Language " + name + " of " + typeOf(language).getName() + " is only found together with its type,"
+                        + " the name alone gives the language of " + typeOf(existing).getName()
+                );
+            }
+
+            LIST.add(language);
+
+            return true;
+        }
+
+        private static String key(Class<?> type, String name)
+        {
+            return type.getName() + "#" + name;
+        }
+
+        /**
+         * Get the type of a language, for enum constants with a body the enum and not the constant's own class.
+         */
+        private static Class<?> typeOf(ConfigurationInterface.LanguageInterface language)
+        {
+            return language instanceof Enum ? ((Enum<?>) language).getDeclaringClass() : language.getClass();
+        }
+    }
+
+    /**
+     * Holder of the preloading thread, only created once a language is preloaded.
+     */
+    private static final class Preloader
+    {
+        private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "language-preloader");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+/**
+ * Read only view of a configuration file in the binary {@link StorageFormat}. The file is memory mapped and only an
+ * index of the entry positions is built when opening it. Keys are compared as raw bytes and values are decoded on
+ * first access.
+ *
+ * @author Marian Pollzien
+ */
+final class MappedConfigurationFile
+{
+    private static final int HEADER_SIZE = 9;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int[] keyOffsets;
+    private final int[] keyLengths;
+    private final int[] valueOffsets;
+    private final int[] valueLengths;
+    private final int[] hashes;
+    /**
+     * Open addressing table holding the entry index plus one, 0 marks an empty slot.
+     */
+    private final int[] table;
+    private final String[] values;
+
+    private MappedConfigurationFile(ByteBuffer buffer) throws IOException
+    {
+        this.buffer = buffer;
+
+        try {
+            if (buffer.getInt(0) != StorageFormat.BINARY_MAGIC) {
+                throw new IOException("Not a binary configuration file");
+            }
+
+            int version = buffer.get(4) & 0xFF;
+
+            if (version != StorageFormat.BINARY_VERSION) {
+                throw new IOException("Unsupported binary configuration version " + version);
+            }
+
+            this.count = buffer.getInt(5);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated binary configuration file", e);
+        }
+
+        // Every entry takes at least two length prefixes.
+        if (this.count < 0 || this.count > (buffer.limit() - HEADER_SIZE) / 8) {
+            throw new IOException("Malformed binary configuration file");
+        }
+
+        this.keyOffsets = new int[this.count];
+        this.keyLengths = new int[this.count];
+        this.valueOffsets = new int[this.count];
+        this.valueLengths = new int[this.count];
+        this.hashes = new int[this.count];
+        this.values = new String[this.count];
+        this.table = new int[tableSize(this.count)];
+        this.index();
+    }
+
+    /**
+     * Open the given file.
+     *
+     * @param file The binary configuration file
+     *
+     * @return View of the file
+     *
+     * @throws IOException If the file could not be read or is malformed
+     */
+    static MappedConfigurationFile open(File file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Configuration file too large: " + size);
+            }
+
+            // Windows does not allow replacing a mapped file and a mapping can't be released explicitly, so the file
+            // is read into memory there. The index and the lazy decoding still apply.
+            if (System.getProperty("os.name").contains("Windows")) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        throw new IOException("Configuration file changed while reading");
+                    }
+                }
+
+                buffer.flip();
+
+                return new MappedConfigurationFile(buffer);
+            }
+
+            return new MappedConfigurationFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return Number of entries
+     */
+    int size()
+    {
+        return this.count;
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key The key
+     *
+     * @return The value or null if the key does not exist
+     */
+    String get(String key)
+    {
+        byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(this.buffer, encoded, 0, encoded.length);
+        int mask = this.table.length - 1;
+
+        for (int slot = hash & mask; this.table[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = this.table[slot] - 1;
+
+            if (this.hashes[entry] == hash && this.keyEquals(entry, encoded)) {
+                return this.getValue(entry);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Decode all entries and pass them to the given consumer.
+     *
+     * @param consumer Consumer receiving keys and values
+     */
+    void forEach(BiConsumer<String, String> consumer)
+    {
+        for (int slot : this.table) {
+            if (slot != 0) {
+                int entry = slot - 1;
+                consumer.accept(this.decode(this.keyOffsets[entry], this.keyLengths[entry]), this.getValue(entry));
+            }
+        }
+    }
+
+    /**
+     * Walk all entries once, recording their positions and filling the hash table.
+     */
+    private void index() throws IOException
+    {
+        int position = HEADER_SIZE;
+        int mask = this.table.length - 1;
+
+        try {
+            for (int entry = 0; entry < this.count; entry++) {
+                this.keyLengths[entry] = this.readLength(position);
+                this.keyOffsets[entry] = position + 4;
+                position = this.keyOffsets[entry] + this.keyLengths[entry];
+                this.valueLengths[entry] = this.readLength(position);
+                this.valueOffsets[entry] = position + 4;
+                position = this.valueOffsets[entry] + this.valueLengths[entry];
+
+                if (position < 0 || position > this.buffer.limit()) {
+                    throw new IOException("Truncated binary configuration file");
+                }
+
+                this.hashes[entry] = hash(this.buffer, null, this.keyOffsets[entry], this.keyLengths[entry]);
+                int slot = this.hashes[entry] & mask;
+
+                // A later duplicate replaces the earlier entry, like loading the file into a map would.
+                while (this.table[slot] != 0 && !this.sameKey(this.table[slot] - 1, entry)) {
+                    slot = (slot + 1) & mask;
+                }
+
+                this.table[slot] = entry + 1;
+            }
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Truncated binary configuration file", e);
+        }
+    }
+
+    private int readLength(int position) throws IOException
+    {
+        int length = this.buffer.getInt(position);
+
+        if (length < 0) {
+            throw new IOException("Malformed binary configuration file");
+        }
+
+        if (length > this.buffer.limit() - position - 4) {
+            throw new IOException("Truncated binary configuration file");
+        }
+
+        return length;
+    }
+
+    private String getValue(int entry)
+    {
+        String value = this.values[entry];
+
+        if (value == null) {
+            // Racing threads decode the same immutable string, so no synchronization is needed.
+            value = this.decode(this.valueOffsets[entry], this.valueLengths[entry]);
+            this.values[entry] = value;
+        }
+
+        return value;
+    }
+
+    private String decode(int offset, int length)
+    {
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            bytes[i] = this.buffer.get(offset + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean keyEquals(int entry, byte[] key)
+    {
+        if (this.keyLengths[entry] != key.length) {
+            return false;
+        }
+
+        int offset = this.keyOffsets[entry];
+
+        for (int i = 0; i < key.length; i++) {
+            if (this.buffer.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean sameKey(int entry, int other)
+    {
+        if (this.hashes[entry] != this.hashes[other] || this.keyLengths[entry] != this.keyLengths[other]) {
+            return false;
+        }
+
+        for (int i = 0; i < this.keyLengths[entry]; i++) {
+            if (this.buffer.get(this.keyOffsets[entry] + i) != this.buffer.get(this.keyOffsets[other] + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * FNV-1a hash of a key, read either from the given array or, if it is null, from the buffer.
+     */
+    private static int hash(ByteBuffer buffer, byte[] key, int offset, int length)
+    {
+        int hash = 0x811C9DC5;
+
+        for (int i = 0; i < length; i++) {
+            hash ^= key != null ? key[offset + i] : buffer.get(offset + i);
+            hash *= 0x01000193;
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Get a power of two table size keeping the load factor at or below one half.
+     */
+    private static int tableSize(int count)
+    {
+        return Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import antafes.utilities.io.IoThrottle;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveStructSparse;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Helper for writing and extracting sparse files as PAX 1.0 sparse entries, the format used by GNU tar.
+ * Java offers no access to SEEK_DATA/SEEK_HOLE, so holes are found by scanning for blocks containing only zeros.
+ *
+ * @author Marian Pollzien
+ */
+final class SparseFiles
+{
+    /**
+     * Granularity of the hole detection. Has to be a multiple of the tar record size, as GNU tar expects every data
+     * segment but the last one to fill complete records.
+     */
+    static final int BLOCK_SIZE = 4096;
+
+    private static final int RECORD_SIZE = 512;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private SparseFiles()
+    {
+    }
+
+    /**
+     * Scan the given file for data segments.
+     *
+     * @param file     The file to scan
+     * @param size     Size of the file
+     * @param throttle Throttle limiting the reads, may be null
+     *
+     * @return The data segments or null if the file contains no holes
+     *
+     * @throws IOException If the file could not be read
+     */
+    static List<TarArchiveStructSparse> scan(Path file, long size, IoThrottle throttle) throws IOException
+    {
+        List<TarArchiveStructSparse> segments = new ArrayList<>();
+        long dataStart = -1;
+        long dataBytes = 0;
+        long position = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (position < size) {
+                buffer.clear();
+
+                if (throttle != null) {
+                    throttle.acquireRead(buffer.capacity());
+                }
+
+                long start = System.nanoTime();
+                int read = channel.read(buffer, position);
+
+                if (throttle != null) {
+                    throttle.recordReadLatency(System.nanoTime() - start);
+                }
+
+                if (read <= 0) {
+                    break;
+                }
+
+                for (int offset = 0; offset < read; offset += BLOCK_SIZE) {
+                    int length = Math.min(BLOCK_SIZE, read - offset);
+                    long blockStart = position + offset;
+
+                    if (isZero(buffer, offset, length)) {
+                        if (dataStart >= 0) {
+                            segments.add(new TarArchiveStructSparse(dataStart, blockStart - dataStart));
+                            dataBytes += blockStart - dataStart;
+                            dataStart = -1;
+                        }
+                    } else if (dataStart < 0) {
+                        dataStart = blockStart;
+                    }
+                }
+
+                position += read;
+            }
+        }
+
+        if (dataStart >= 0) {
+            segments.add(new TarArchiveStructSparse(dataStart, position - dataStart));
+            dataBytes += position - dataStart;
+        }
+
+        return dataBytes < size ? segments : null;
+    }
+
+    /**
+     * Write a sparse entry consisting of a PAX header and the data segments.
+     *
+     * @param tar      The archive to write to
+     * @param template Entry providing name, mode, owner and modification time
+     * @param realSize Size of the file including the holes
+     * @param segments The data segments in ascending order, empty segments like the terminator of a read sparse map
+     *                 are left out
+     * @param data     Stream providing the full file content, holes are skipped
+     *
+     * @throws IOException If reading or writing failed
+     */
+    static void writeEntry(
+        TarArchiveOutputStream tar,
+        TarArchiveEntry template,
+        long realSize,
+        List<TarArchiveStructSparse> segments,
+        InputStream data
+    ) throws IOException {
+        segments = withoutEmptySegments(segments);
+        String shortName = shortName(template.getName());
+        byte[] header = paxHeader(template.getName(), realSize);
+        TarArchiveEntry headerEntry = new TarArchiveEntry(
+            "./PaxHeaders/" + shortName,
+            TarConstants.LF_PAX_EXTENDED_HEADER_LC
+        );
+        headerEntry.setSize(header.length);
+        tar.putArchiveEntry(headerEntry);
+        tar.write(header);
+        tar.closeArchiveEntry();
+
+        byte[] map = sparseMap(realSize, segments);
+        long dataBytes = 0;
+
+        for (TarArchiveStructSparse segment : segments) {
+            dataBytes += segment.getNumbytes();
+        }
+
+        TarArchiveEntry entry = new TarArchiveEntry("GNUSparseFile.0/" + shortName);
+        entry.setMode(template.getMode());
+        entry.setModTime(template.getModTime());
+        entry.setUserId(template.getLongUserId());
+        entry.setGroupId(template.getLongGroupId());
+        entry.setUserName(template.getUserName());
+        entry.setGroupName(template.getGroupName());
+        entry.setSize(map.length + dataBytes);
+        tar.putArchiveEntry(entry);
+        tar.write(map);
+
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long position = 0;
+
+        for (TarArchiveStructSparse segment : segments) {
+            skipFully(data, segment.getOffset() - position);
+            copy(data, tar, segment.getNumbytes(), buffer);
+            position = segment.getOffset() + segment.getNumbytes();
+        }
+
+        tar.closeArchiveEntry();
+    }
+
+    /**
+     * Write the file content of a sparse entry, only writing the data segments and leaving holes in between.
+     *
+     * @param tar      The archive stream positioned at the entry content
+     * @param entry    The sparse entry
+     * @param target   The file to create
+     * @param throttle Throttle limiting the writes, may be null
+     *
+     * @throws IOException If reading or writing failed
+     */
+    static void extract(InputStream tar, TarArchiveEntry entry, Path target, IoThrottle throttle) throws IOException
+    {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long position = 0;
+
+        try (FileChannel channel = FileChannel.open(
+            target,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.SPARSE
+        )) {
+            for (TarArchiveStructSparse segment : entry.getOrderedSparseHeaders()) {
+                if (segment.getNumbytes() == 0) {
+                    continue;
+                }
+
+                skipFully(tar, segment.getOffset() - position);
+                channel.position(segment.getOffset());
+                long remaining = segment.getNumbytes();
+
+                while (remaining > 0) {
+                    int read = tar.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+
+                    if (read < 0) {
+                        throw new EOFException("Truncated sparse entry " + entry.getName());
+                    }
+
+                    if (throttle != null) {
+                        throttle.acquireWrite(read);
+                    }
+
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+
+                    remaining -= read;
+                }
+
+                position = segment.getOffset() + segment.getNumbytes();
+            }
+
+            // A trailing hole has to be created by extending the file.
+            if (channel.size() < entry.getRealSize()) {
+                channel.write(ByteBuffer.wrap(new byte[1]), entry.getRealSize() - 1);
+            }
+        }
+    }
+
+    /**
+     * Check whether the given region of the buffer only contains zeros.
+     */
+    private static boolean isZero(ByteBuffer buffer, int offset, int length)
+    {
+        int index = offset;
+        int end = offset + length;
+
+        for (; index + Long.BYTES <= end; index += Long.BYTES) {
+            if (buffer.getLong(index) != 0) {
+                return false;
+            }
+        }
+
+        for (; index < end; index++) {
+            if (buffer.get(index) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Get a plain ASCII name short enough for the name field of a tar header, so the entry itself never needs an
+     * additional PAX header. The real name is stored in the sparse PAX header.
+     */
+    private static String shortName(String name)
+    {
+        String fileName = name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+        fileName = fileName.substring(fileName.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]", "_");
+
+        return fileName.length() > 80 ? fileName.substring(0, 80) : fileName;
+    }
+
+    private static byte[] paxHeader(String name, long realSize)
+    {
+        StringBuilder header = new StringBuilder();
+        paxRecord(header, "GNU.sparse.major", "1");
+        paxRecord(header, "GNU.sparse.minor", "0");
+        paxRecord(header, "GNU.sparse.name", name);
+        paxRecord(header, "GNU.sparse.realsize", Long.toString(realSize));
+
+        return header.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Append a PAX record. The length prefix counts the whole record including itself.
+     */
+    private static void paxRecord(StringBuilder header, String key, String value)
+    {
+        int length = (" " + key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8).length;
+        int total = length + Integer.toString(length).length();
+
+        if (Integer.toString(total).length() > Integer.toString(length).length()) {
+            total++;
+        }
+
+        header.append(total).append(' ').append(key).append('=').append(value).append('\n');
+    }
+
+    private static List<TarArchiveStructSparse> withoutEmptySegments(List<TarArchiveStructSparse> segments)
+    {
+        List<TarArchiveStructSparse> result = new ArrayList<>(segments.size());
+
+        for (TarArchiveStructSparse segment : segments) {
+            if (segment.getNumbytes() > 0) {
+                result.add(segment);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Build the sparse map preceding the data: the number of segments followed by offset and size of every segment,
+     * padded to full records. Like GNU tar, a last empty segment marks the real size.
+     */
+    private static byte[] sparseMap(long realSize, List<TarArchiveStructSparse> segments)
+    {
+        StringBuilder map = new StringBuilder();
+        map.append(segments.size() + 1).append('\n');
+
+        for (TarArchiveStructSparse segment : segments) {
+            map.append(segment.getOffset()).append('\n').append(segment.getNumbytes()).append('\n');
+        }
+
+        map.append(realSize).append('\n').append(0).append('\n');
+        byte[] content = map.toString().getBytes(StandardCharsets.US_ASCII);
+        int padded = (content.length + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+        byte[] result = new byte[padded];
+        System.arraycopy(content, 0, result, 0, content.length);
+
+        return result;
+    }
+
+    private static void skipFully(InputStream inputStream, long bytes) throws IOException
+    {
+        while (bytes > 0) {
+            long skipped = inputStream.skip(bytes);
+
+            if (skipped <= 0) {
+                if (inputStream.read() < 0) {
+                    throw new EOFException("Unexpected end of data while skipping a hole");
+                }
+
+                skipped = 1;
+            }
+
+            bytes -= skipped;
+        }
+    }
+
+    /**
+     * Copy the given amount of bytes. If the source ends early, because the file shrank since it has been scanned,
+     * the rest is filled with zeros to keep the archive consistent.
+     */
+    private static void copy(InputStream source, TarArchiveOutputStream target, long bytes, byte[] buffer)
+        throws IOException
+    {
+        while (bytes > 0) {
+            int length = (int) Math.min(buffer.length, bytes);
+            int read = source.read(buffer, 0, length);
+
+            if (read < 0) {
+                Arrays.fill(buffer, 0, length, (byte) 0);
+                read = length;
+            }
+
+            target.write(buffer, 0, read);
+            bytes -= read;
+        }
+    }
+}
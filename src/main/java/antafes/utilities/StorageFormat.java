@@ -0,0 +1,218 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import lombok.Getter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * File formats the configuration can be stored in.
+ *
+ * @author Marian Pollzien
+ */
+@Getter
+public enum StorageFormat
+{
+    /**
+     * The XML format of {@link Properties#storeToXML(OutputStream, String)}.
+     */
+    XML(".xml") {
+        @Override
+        public void load(InputStream inputStream, Map<String, String> values) throws IOException
+        {
+            Properties properties = new Properties();
+            properties.loadFromXML(inputStream);
+            copy(properties, values);
+        }
+
+        @Override
+        public void store(OutputStream outputStream, Map<String, String> values) throws IOException
+        {
+            Properties properties = new Properties();
+            properties.putAll(values);
+            properties.storeToXML(outputStream, null);
+        }
+    },
+    /**
+     * The plain text format of {@link Properties}, encoded as UTF-8.
+     */
+    PROPERTIES(".properties") {
+        @Override
+        public void load(InputStream inputStream, Map<String, String> values) throws IOException
+        {
+            Properties properties = new Properties();
+            properties.load(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+            copy(properties, values);
+        }
+
+        @Override
+        public void store(OutputStream outputStream, Map<String, String> values) throws IOException
+        {
+            Properties properties = new Properties();
+            properties.putAll(values);
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            properties.store(writer, null);
+            writer.flush();
+        }
+    },
+    /**
+     * Compact binary format: a magic number, the format version, the number of entries and then every key and value
+     * as UTF-8 bytes prefixed with their length.
+     */
+    BINARY(".bin") {
+        @Override
+        public void load(InputStream inputStream, Map<String, String> values) throws IOException
+        {
+            DataInputStream input = new DataInputStream(inputStream);
+
+            if (input.readInt() != BINARY_MAGIC) {
+                throw new IOException("Not a binary configuration file");
+            }
+
+            int version = input.readUnsignedByte();
+
+            if (version != BINARY_VERSION) {
+                throw new IOException("Unsupported binary configuration version " + version);
+            }
+
+            int count = input.readInt();
+
+            for (int i = 0; i < count; i++) {
+                values.put(readString(input), readString(input));
+            }
+        }
+
+        @Override
+        public void store(OutputStream outputStream, Map<String, String> values) throws IOException
+        {
+            DataOutputStream output = new DataOutputStream(outputStream);
+            output.writeInt(BINARY_MAGIC);
+            output.writeByte(BINARY_VERSION);
+            output.writeInt(values.size());
+
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writeString(output, entry.getKey());
+                writeString(output, entry.getValue());
+            }
+
+            output.flush();
+        }
+    };
+
+    /**
+     * "ACFG" in ASCII.
+     */
+    static final int BINARY_MAGIC = 0x41434647;
+    static final int BINARY_VERSION = 1;
+    /**
+     * Size of the first chunk allocated for a string of a binary file.
+     */
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+
+    private final String extension;
+
+    StorageFormat(String extension)
+    {
+        this.extension = extension;
+    }
+
+    /**
+     * Read all values from the given stream.
+     *
+     * @param inputStream The stream to read from
+     * @param values      The map receiving the values
+     *
+     * @throws IOException If the stream could not be read or is malformed
+     */
+    public abstract void load(InputStream inputStream, Map<String, String> values) throws IOException;
+
+    /**
+     * Write all values to the given stream. The stream is flushed but not closed.
+     *
+     * @param outputStream The stream to write to
+     * @param values       The values to write
+     *
+     * @throws IOException If the stream could not be written
+     */
+    public abstract void store(OutputStream outputStream, Map<String, String> values) throws IOException;
+
+    private static void copy(Properties properties, Map<String, String> values)
+    {
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, properties.getProperty(key));
+        }
+    }
+
+    /**
+     * Read a string prefixed with its length. The remaining size of a stream is unknown, so a large length is read in
+     * chunks and memory is only allocated for data actually present. A length beyond the end of the stream fails
+     * without allocating it first.
+     */
+    private static String readString(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+
+        if (length < 0) {
+            throw new IOException("Malformed binary configuration file");
+        }
+
+        byte[] bytes = new byte[Math.min(length, READ_CHUNK_SIZE)];
+        int read = 0;
+
+        try {
+            while (read < length) {
+                if (read == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+                }
+
+                input.readFully(bytes, read, bytes.length - read);
+                read = bytes.length;
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated binary configuration file", e);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
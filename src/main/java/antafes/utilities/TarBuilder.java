@@ -22,13 +22,18 @@
 
 package antafes.utilities;
 
+import antafes.utilities.io.AsyncFileInputStream;
+import antafes.utilities.io.AsyncFileOutputStream;
+import antafes.utilities.io.IoThrottle;
+import lombok.Setter;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveStructSparse;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -36,28 +41,93 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TarBuilder
 {
+    /**
+     * Files below this size are copied synchronously, the asynchronous buffers would not pay off.
+     */
+    private static final long ASYNC_THRESHOLD = 1024 * 1024;
+
     private final OutputStream tarStream;
-    private final boolean gzip;
+    private final Compression compression;
+    private final boolean asyncIo;
+
+    /**
+     * Whether files should be scanned for holes and written as sparse entries. This needs an additional read of every
+     * file, but holes are neither compressed nor stored.
+     */
+    @Setter
+    private boolean sparse = false;
+
+    /**
+     * Limits reading the source files and writing the archive. The limits of the throttle may be changed while the
+     * archive is being built.
+     */
+    @Setter
+    private IoThrottle throttle = null;
 
     public TarBuilder(OutputStream tarStream, boolean gzip)
+    {
+        this(tarStream, Compression.of(gzip));
+    }
+
+    /**
+     * Create a builder writing the archive to the given stream.
+     *
+     * @param tarStream   The stream to write the archive to
+     * @param compression The compression to use for the archive
+     */
+    public TarBuilder(OutputStream tarStream, Compression compression)
+    {
+        this(tarStream, compression, false);
+    }
+
+    /**
+     * Create a builder writing the archive to the given file. The archive is written and larger source files are
+     * read through asynchronous file channels, keeping multiple requests in flight.
+     *
+     * @param archive The archive file to create
+     * @param gzip    Whether the archive should be compressed with gzip
+     *
+     * @throws IOException If the archive file could not be opened
+     */
+    public TarBuilder(Path archive, boolean gzip) throws IOException
+    {
+        this(archive, Compression.of(gzip));
+    }
+
+    /**
+     * Create a builder writing the archive to the given file using asynchronous file channels.
+     *
+     * @param archive     The archive file to create
+     * @param compression The compression to use for the archive
+     *
+     * @throws IOException If the archive file could not be opened
+     */
+    public TarBuilder(Path archive, Compression compression) throws IOException
+    {
+        this(new AsyncFileOutputStream(archive), compression, true);
+    }
+
+    private TarBuilder(OutputStream tarStream, Compression compression, boolean asyncIo)
     {
         this.tarStream = tarStream;
-        this.gzip = gzip;
+        this.compression = compression;
+        this.asyncIo = asyncIo;
     }
 
     public boolean tar(ArrayList<File> files)
     {
         AtomicBoolean successful = new AtomicBoolean(true);
-        try (BufferedOutputStream outputStream = new BufferedOutputStream(this.tarStream))
+        OutputStream archiveStream = this.throttle == null ? this.tarStream : this.throttle.wrap(this.tarStream);
+        try (BufferedOutputStream outputStream = new BufferedOutputStream(archiveStream))
         {
-            TarArchiveOutputStream tar = new TarArchiveOutputStream(
-                this.gzip ? new GzipCompressorOutputStream(outputStream) : outputStream
-            );
+            TarArchiveOutputStream tar = new TarArchiveOutputStream(this.compression.compress(outputStream));
             tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_STAR);
 
             files.forEach((file) -> {
                 try {
@@ -90,8 +160,22 @@ public class TarBuilder
 
                 Path targetFile = source.getParentFile().toPath().relativize(file);
                 TarArchiveEntry tarEntry = new TarArchiveEntry(file.toFile(), targetFile.toString());
+                List<TarArchiveStructSparse> segments = null;
+
+                if (TarBuilder.this.sparse && attributes.size() >= SparseFiles.BLOCK_SIZE) {
+                    segments = SparseFiles.scan(file, attributes.size(), TarBuilder.this.throttle);
+                }
+
+                if (segments != null) {
+                    try (InputStream data = TarBuilder.this.throttled(Files.newInputStream(file))) {
+                        SparseFiles.writeEntry(tar, tarEntry, attributes.size(), segments, data);
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+
                 tar.putArchiveEntry(tarEntry);
-                Files.copy(file, tar);
+                TarBuilder.this.copy(file, attributes.size(), tar);
                 tar.closeArchiveEntry();
 
                 return FileVisitResult.CONTINUE;
@@ -104,4 +188,26 @@ public class TarBuilder
 
         });
     }
+
+    private void copy(Path file, long size, OutputStream target) throws IOException
+    {
+        if (this.throttle == null && (!this.asyncIo || size < ASYNC_THRESHOLD)) {
+            Files.copy(file, target);
+
+            return;
+        }
+
+        InputStream source = this.asyncIo && size >= ASYNC_THRESHOLD
+            ? new AsyncFileInputStream(file)
+            : Files.newInputStream(file);
+
+        try (InputStream inputStream = this.throttled(source)) {
+            inputStream.transferTo(target);
+        }
+    }
+
+    private InputStream throttled(InputStream inputStream)
+    {
+        return this.throttle == null ? inputStream : this.throttle.wrap(inputStream);
+    }
 }
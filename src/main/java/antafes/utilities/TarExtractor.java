@@ -22,43 +22,233 @@
 
 package antafes.utilities;
 
-import org.apache.commons.compress.archivers.ArchiveEntry;
+import antafes.utilities.io.AsyncFileInputStream;
+import antafes.utilities.io.AsyncFileOutputStream;
+import antafes.utilities.io.IoThrottle;
+import lombok.Setter;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
 import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class TarExtractor
 {
+    /**
+     * Entries below this size are written synchronously, the asynchronous buffers would not pay off.
+     */
+    private static final long ASYNC_THRESHOLD = 1024 * 1024;
+
     private final InputStream tarStream;
-    private final boolean gzip;
+    private final Compression compression;
     private final Path destination;
+    private final Path archive;
+    private final boolean asyncIo;
+
+    /**
+     * Limits reading the archive and writing the extracted files. The limits of the throttle may be changed while
+     * the archive is being extracted.
+     */
+    @Setter
+    private IoThrottle throttle = null;
 
     public TarExtractor(InputStream tarStream, boolean gzip, Path destination)
+    {
+        this(tarStream, Compression.of(gzip), destination);
+    }
+
+    /**
+     * Create an extractor reading the archive from the given stream.
+     *
+     * @param tarStream   The stream to read the archive from
+     * @param compression The compression used by the archive
+     * @param destination The directory to extract to
+     */
+    public TarExtractor(InputStream tarStream, Compression compression, Path destination)
+    {
+        this(tarStream, compression, destination, null);
+    }
+
+    /**
+     * Create an extractor reading the given archive file. The archive is read and larger entries are written
+     * through asynchronous file channels, keeping multiple requests in flight.
+     * The archive file is opened by every call of {@link #untar()} or {@link #list()} and closed once it is done, so
+     * an archive can be listed and extracted with the same extractor.
+     *
+     * @param archive     The archive file to extract
+     * @param gzip        Whether the archive is compressed with gzip
+     * @param destination The directory to extract to
+     *
+     * @throws IOException If the archive file is not readable
+     */
+    public TarExtractor(Path archive, boolean gzip, Path destination) throws IOException
+    {
+        this(archive, Compression.of(gzip), destination);
+    }
+
+    /**
+     * Create an extractor reading the given archive file using asynchronous file channels.
+     *
+     * @param archive     The archive file to extract
+     * @param compression The compression used by the archive
+     * @param destination The directory to extract to
+     *
+     * @throws IOException If the archive file is not readable
+     */
+    public TarExtractor(Path archive, Compression compression, Path destination) throws IOException
+    {
+        this(null, compression, destination, archive);
+
+        if (!Files.isReadable(archive)) {
+            throw new NoSuchFileException(archive.toString());
+        }
+    }
+
+    private TarExtractor(InputStream tarStream, Compression compression, Path destination, Path archive)
     {
         this.tarStream = tarStream;
-        this.gzip = gzip;
+        this.compression = compression;
         this.destination = destination;
+        this.archive = archive;
+        this.asyncIo = archive != null;
     }
 
     public void untar() throws IOException
     {
-        BufferedInputStream inputStream = new BufferedInputStream(this.tarStream);
-         TarArchiveInputStream tar = new TarArchiveInputStream(
-             this.gzip ? new GzipCompressorInputStream(inputStream) : inputStream
-         );
-        ArchiveEntry entry;
-        while ((entry = tar.getNextEntry()) != null) {
-            Path extractTo = this.destination.resolve(entry.getName());
-            if (entry.isDirectory()) {
-                Files.createDirectories(extractTo);
-            } else {
-                Files.copy(tar, extractTo);
+        InputStream source = this.open();
+        TarArchiveInputStream tar;
+
+        try {
+            tar = new TarArchiveInputStream(
+                this.compression.decompress(new BufferedInputStream(this.throttled(source)))
+            );
+        } catch (IOException | RuntimeException e) {
+            this.closeOpened(source);
+            throw e;
+        }
+
+        try {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextEntry()) != null) {
+                Path extractTo = this.destination.resolve(entry.getName());
+                if (entry.isDirectory()) {
+                    Files.createDirectories(extractTo);
+                } else if (entry.isSparse()) {
+                    Files.createDirectories(extractTo.getParent());
+                    SparseFiles.extract(tar, entry, extractTo, this.throttle);
+                } else {
+                    this.copy(tar, entry.getSize(), extractTo);
+                }
+            }
+        } finally {
+            if (this.asyncIo) {
+                tar.close();
             }
         }
     }
+
+    /**
+     * Open the archive file or return the stream given to the constructor.
+     */
+    private InputStream open() throws IOException
+    {
+        return this.archive != null ? new AsyncFileInputStream(this.archive) : this.tarStream;
+    }
+
+    /**
+     * Close a stream returned by {@link #open()} if the extractor opened it.
+     */
+    private void closeOpened(InputStream source) throws IOException
+    {
+        if (this.asyncIo) {
+            source.close();
+        }
+    }
+
+    /**
+     * List the entries of the archive without extracting them.
+     * Uncompressed archives read from a file are listed by jumping from header to header, so the payloads are never
+     * read. Compressed archives have to be decompressed completely.
+     *
+     * @return Listing of all entries
+     *
+     * @throws IOException If reading failed
+     */
+    public TarListing list() throws IOException
+    {
+        TarListing listing = new TarListing();
+
+        if (this.compression == Compression.NONE && this.archive != null) {
+            try (FileChannel channel = FileChannel.open(this.archive, StandardOpenOption.READ)) {
+                new TarHeaderScanner(channel).scan(listing);
+            }
+        } else if (this.compression == Compression.NONE && this.tarStream instanceof FileInputStream) {
+            new TarHeaderScanner(((FileInputStream) this.tarStream).getChannel()).scan(listing);
+        } else {
+            InputStream source = this.open();
+
+            try {
+                TarArchiveInputStream tar = new TarArchiveInputStream(
+                    this.compression.decompress(new BufferedInputStream(this.throttled(source)))
+                );
+                TarArchiveEntry entry;
+                while ((entry = tar.getNextEntry()) != null) {
+                    listing.add(
+                        entry.getName(),
+                        entry.isSparse() ? entry.getRealSize() : entry.getSize(),
+                        entry.getLastModifiedTime().toMillis(),
+                        entry.isDirectory()
+                    );
+                }
+            } finally {
+                this.closeOpened(source);
+            }
+        }
+
+        listing.trim();
+
+        return listing;
+    }
+
+    private void copy(InputStream source, long size, Path target) throws IOException
+    {
+        // TarBuilder does not write directory entries, so the parent may not exist yet.
+        Files.createDirectories(target.getParent());
+
+        if (this.throttle == null && (!this.asyncIo || size < ASYNC_THRESHOLD)) {
+            Files.copy(source, target);
+
+            return;
+        }
+
+        OutputStream outputStream;
+
+        if (this.asyncIo && size >= ASYNC_THRESHOLD) {
+            if (Files.exists(target)) {
+                throw new FileAlreadyExistsException(target.toString());
+            }
+
+            outputStream = new AsyncFileOutputStream(target);
+        } else {
+            outputStream = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+
+        try (OutputStream throttled = this.throttle == null ? outputStream : this.throttle.wrap(outputStream)) {
+            source.transferTo(throttled);
+        }
+    }
+
+    private InputStream throttled(InputStream inputStream)
+    {
+        return this.throttle == null ? inputStream : this.throttle.wrap(inputStream);
+    }
 }
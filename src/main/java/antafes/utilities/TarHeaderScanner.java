@@ -0,0 +1,255 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.compress.archivers.tar.TarUtils;
+import org.apache.commons.compress.archivers.zip.ZipEncoding;
+import org.apache.commons.compress.archivers.zip.ZipEncodingHelper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Walks the headers of an uncompressed archive on a seekable channel. Payloads are never read, the scanner jumps
+ * from one header to the next. Only PAX headers and GNU long names, which describe the following entry, are read.
+ * Headers with a wrong checksum and malformed PAX records are rejected like TarArchiveInputStream does.
+ *
+ * @author Marian Pollzien
+ */
+final class TarHeaderScanner
+{
+    private static final int RECORD_SIZE = 512;
+    private static final int EXTENSION_FLAG_OFFSET = 504;
+
+    private final SeekableByteChannel channel;
+    private final ZipEncoding encoding = ZipEncodingHelper.getZipEncoding(StandardCharsets.UTF_8);
+    private final ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+
+    TarHeaderScanner(SeekableByteChannel channel)
+    {
+        this.channel = channel;
+    }
+
+    /**
+     * Read all headers starting at the current position of the channel.
+     *
+     * @param listing The listing receiving the entries
+     *
+     * @throws IOException If reading failed or the archive is malformed
+     */
+    void scan(TarListing listing) throws IOException
+    {
+        long position = this.channel.position();
+        Map<String, String> paxHeaders = new HashMap<>();
+        String longName = null;
+
+        while (this.readRecord(position)) {
+            if (this.isEndOfArchive()) {
+                break;
+            }
+
+            if (!TarUtils.verifyCheckSum(this.header.array())) {
+                throw new IOException("Corrupted TAR archive, header checksum mismatch at " + position);
+            }
+
+            TarArchiveEntry entry = new TarArchiveEntry(this.header.array(), this.encoding, true);
+            long dataStart = position + RECORD_SIZE;
+
+            if (entry.isOldGNUSparse() && entry.isExtended()) {
+                dataStart = this.skipSparseExtensions(dataStart);
+            }
+
+            if (entry.isPaxHeader()) {
+                parsePaxHeaders(this.readPayload(dataStart, entry.getSize()), paxHeaders);
+                position = next(dataStart, entry.getSize());
+
+                continue;
+            }
+
+            if (entry.isGNULongNameEntry()) {
+                longName = trimNul(new String(this.readPayload(dataStart, entry.getSize()), StandardCharsets.UTF_8));
+                position = next(dataStart, entry.getSize());
+
+                continue;
+            }
+
+            if (entry.isGlobalPaxHeader() || entry.isGNULongLinkEntry()) {
+                position = next(dataStart, entry.getSize());
+
+                continue;
+            }
+
+            String name = paxHeaders.getOrDefault("path", longName != null ? longName : entry.getName());
+            name = paxHeaders.getOrDefault("GNU.sparse.name", name);
+            long storedSize = paxHeaders.containsKey("size")
+                ? Long.parseLong(paxHeaders.get("size"))
+                : entry.getSize();
+            long size = storedSize;
+
+            if (paxHeaders.containsKey("GNU.sparse.realsize")) {
+                size = Long.parseLong(paxHeaders.get("GNU.sparse.realsize"));
+            } else if (paxHeaders.containsKey("GNU.sparse.size")) {
+                size = Long.parseLong(paxHeaders.get("GNU.sparse.size"));
+            } else if (entry.isOldGNUSparse() || entry.isStarSparse()) {
+                size = entry.getRealSize();
+            }
+
+            long modificationTime = paxHeaders.containsKey("mtime")
+                ? new BigDecimal(paxHeaders.get("mtime")).movePointRight(3).longValue()
+                : entry.getLastModifiedTime().toMillis();
+            boolean directory = entry.getLinkFlag() == TarConstants.LF_DIR || name.endsWith("/");
+
+            listing.add(name, size, modificationTime, directory);
+            paxHeaders.clear();
+            longName = null;
+            position = next(dataStart, storedSize);
+        }
+    }
+
+    private boolean readRecord(long position) throws IOException
+    {
+        this.header.clear();
+        this.channel.position(position);
+
+        while (this.header.hasRemaining()) {
+            if (this.channel.read(this.header) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isEndOfArchive()
+    {
+        byte[] record = this.header.array();
+
+        for (byte value : record) {
+            if (value != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Skip the extension records following an old GNU sparse header.
+     *
+     * @param position Position of the first extension record
+     *
+     * @return Position of the entry data
+     */
+    private long skipSparseExtensions(long position) throws IOException
+    {
+        do {
+            if (!this.readRecord(position)) {
+                throw new EOFException("Truncated sparse header");
+            }
+
+            position += RECORD_SIZE;
+        } while (this.header.get(EXTENSION_FLAG_OFFSET) != 0);
+
+        return position;
+    }
+
+    private byte[] readPayload(long position, long size) throws IOException
+    {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Header entry too large: " + size);
+        }
+
+        ByteBuffer payload = ByteBuffer.allocate((int) size);
+        this.channel.position(position);
+
+        while (payload.hasRemaining()) {
+            if (this.channel.read(payload) < 0) {
+                throw new EOFException("Truncated header entry");
+            }
+        }
+
+        return payload.array();
+    }
+
+    /**
+     * Parse PAX records of the form "length key=value\n".
+     */
+    private static void parsePaxHeaders(byte[] data, Map<String, String> headers) throws IOException
+    {
+        int offset = 0;
+
+        while (offset < data.length && data[offset] != 0) {
+            int space = offset;
+
+            while (space < data.length && data[space] != ' ') {
+                space++;
+            }
+
+            if (space >= data.length) {
+                throw new IOException("Malformed PAX header");
+            }
+
+            int length;
+
+            try {
+                length = Integer.parseInt(new String(data, offset, space - offset, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed PAX header", e);
+            }
+
+            // The record has to hold at least the length, the space and the closing line feed.
+            if (length <= space - offset + 1 || length > data.length - offset || data[offset + length - 1] != '\n') {
+                throw new IOException("Malformed PAX header");
+            }
+
+            String record = new String(data, space + 1, offset + length - space - 2, StandardCharsets.UTF_8);
+            int equals = record.indexOf('=');
+
+            if (equals > 0) {
+                headers.put(record.substring(0, equals), record.substring(equals + 1));
+            }
+
+            offset += length;
+        }
+    }
+
+    private static long next(long dataStart, long size)
+    {
+        return dataStart + (size + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+    }
+
+    private static String trimNul(String value)
+    {
+        int end = value.indexOf('\0');
+
+        return end < 0 ? value : value.substring(0, end);
+    }
+}
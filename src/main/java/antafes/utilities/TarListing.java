@@ -0,0 +1,187 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compact listing of the entries of an archive.
+ * The entries are stored in columns of primitive arrays and all names share a single byte array, so a listing of
+ * millions of entries does not need millions of objects.
+ *
+ * @author Marian Pollzien
+ */
+public class TarListing
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int count = 0;
+    private byte[] names = new byte[INITIAL_CAPACITY * 32];
+    private int namesLength = 0;
+    private int[] nameOffsets = new int[INITIAL_CAPACITY + 1];
+    private long[] sizes = new long[INITIAL_CAPACITY];
+    private long[] modificationTimes = new long[INITIAL_CAPACITY];
+    private boolean[] directories = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * Add an entry to the listing.
+     *
+     * @param name             Name of the entry
+     * @param size             Size of the entry, for sparse files the size including the holes
+     * @param modificationTime Modification time in milliseconds since the epoch
+     * @param directory        Whether the entry is a directory
+     */
+    void add(String name, long size, long modificationTime, boolean directory)
+    {
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+
+        if (this.count == this.sizes.length) {
+            int capacity = Math.max(this.count * 2, INITIAL_CAPACITY);
+            this.nameOffsets = Arrays.copyOf(this.nameOffsets, capacity + 1);
+            this.sizes = Arrays.copyOf(this.sizes, capacity);
+            this.modificationTimes = Arrays.copyOf(this.modificationTimes, capacity);
+            this.directories = Arrays.copyOf(this.directories, capacity);
+        }
+
+        if (this.namesLength + encoded.length > this.names.length) {
+            long capacity = Math.max((long) this.names.length * 2, (long) this.namesLength + encoded.length);
+
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Entry names exceed the maximum listing size");
+            }
+
+            this.names = Arrays.copyOf(this.names, (int) capacity);
+        }
+
+        System.arraycopy(encoded, 0, this.names, this.namesLength, encoded.length);
+        this.namesLength += encoded.length;
+        this.sizes[this.count] = size;
+        this.modificationTimes[this.count] = modificationTime;
+        this.directories[this.count] = directory;
+        this.count++;
+        this.nameOffsets[this.count] = this.namesLength;
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return Number of entries
+     */
+    public int size()
+    {
+        return this.count;
+    }
+
+    /**
+     * Get the name of an entry. The name is decoded on every call.
+     *
+     * @param index Index of the entry
+     *
+     * @return Name of the entry
+     */
+    public String getName(int index)
+    {
+        this.checkIndex(index);
+        int start = this.nameOffsets[index];
+
+        return new String(this.names, start, this.nameOffsets[index + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the size of an entry. For sparse files this is the size including the holes.
+     *
+     * @param index Index of the entry
+     *
+     * @return Size in bytes
+     */
+    public long getSize(int index)
+    {
+        this.checkIndex(index);
+
+        return this.sizes[index];
+    }
+
+    /**
+     * Get the modification time of an entry.
+     *
+     * @param index Index of the entry
+     *
+     * @return Modification time in milliseconds since the epoch
+     */
+    public long getModificationTime(int index)
+    {
+        this.checkIndex(index);
+
+        return this.modificationTimes[index];
+    }
+
+    /**
+     * Check whether an entry is a directory.
+     *
+     * @param index Index of the entry
+     *
+     * @return True if the entry is a directory
+     */
+    public boolean isDirectory(int index)
+    {
+        this.checkIndex(index);
+
+        return this.directories[index];
+    }
+
+    /**
+     * Get the summed up size of all entries.
+     *
+     * @return Size in bytes
+     */
+    public long getTotalSize()
+    {
+        long total = 0;
+
+        for (int i = 0; i < this.count; i++) {
+            total += this.sizes[i];
+        }
+
+        return total;
+    }
+
+    /**
+     * Release the unused capacity of the columns.
+     */
+    void trim()
+    {
+        this.names = Arrays.copyOf(this.names, this.namesLength);
+        this.nameOffsets = Arrays.copyOf(this.nameOffsets, this.count + 1);
+        this.sizes = Arrays.copyOf(this.sizes, this.count);
+        this.modificationTimes = Arrays.copyOf(this.modificationTimes, this.count);
+        this.directories = Arrays.copyOf(this.directories, this.count);
+    }
+
+    private void checkIndex(int index)
+    {
+        if (index < 0 || index >= this.count) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + this.count + " entries");
+        }
+    }
+}
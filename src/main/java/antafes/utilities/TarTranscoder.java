@@ -0,0 +1,245 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities;
+
+import antafes.utilities.io.AsyncFileInputStream;
+import antafes.utilities.io.AsyncFileOutputStream;
+import antafes.utilities.io.IoThrottle;
+import lombok.Setter;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Reads one archive and writes its entries to another one without extracting them to disk.
+ * Payloads are streamed straight through, so memory usage does not depend on the size of the archive.
+ *
+ * @author Marian Pollzien
+ */
+public class TarTranscoder
+{
+    private final InputStream sourceStream;
+    private final Compression sourceCompression;
+    private final OutputStream targetStream;
+    private final Compression targetCompression;
+    private final boolean ownsSource;
+
+    /**
+     * Only entries matching this filter are written to the target archive.
+     */
+    @Setter
+    private Predicate<TarArchiveEntry> filter = entry -> true;
+
+    /**
+     * Maps the name of an entry in the source archive to its name in the target archive.
+     */
+    @Setter
+    private UnaryOperator<String> rename = UnaryOperator.identity();
+
+    /**
+     * Name of an index entry appended to the target archive, listing name, size and modification time of every
+     * written entry, one per line and separated by tabs. No index is written if this is null.
+     */
+    @Setter
+    private String indexName = null;
+
+    /**
+     * Limits reading the source and writing the target archive.
+     */
+    @Setter
+    private IoThrottle throttle = null;
+
+    /**
+     * Create a transcoder working on streams. The target stream is closed once transcoding is done.
+     *
+     * @param sourceStream      The stream to read the source archive from
+     * @param sourceCompression The compression used by the source archive
+     * @param targetStream      The stream to write the target archive to
+     * @param targetCompression The compression to use for the target archive
+     */
+    public TarTranscoder(
+        InputStream sourceStream,
+        Compression sourceCompression,
+        OutputStream targetStream,
+        Compression targetCompression
+    ) {
+        this(sourceStream, sourceCompression, targetStream, targetCompression, false);
+    }
+
+    /**
+     * Create a transcoder working on files using asynchronous file channels.
+     *
+     * @param source            The source archive
+     * @param sourceCompression The compression used by the source archive
+     * @param target            The target archive to create
+     * @param targetCompression The compression to use for the target archive
+     *
+     * @throws IOException If one of the files could not be opened
+     */
+    public TarTranscoder(Path source, Compression sourceCompression, Path target, Compression targetCompression)
+        throws IOException
+    {
+        this(
+            new AsyncFileInputStream(source),
+            sourceCompression,
+            new AsyncFileOutputStream(target),
+            targetCompression,
+            true
+        );
+    }
+
+    private TarTranscoder(
+        InputStream sourceStream,
+        Compression sourceCompression,
+        OutputStream targetStream,
+        Compression targetCompression,
+        boolean ownsSource
+    ) {
+        this.sourceStream = sourceStream;
+        this.sourceCompression = sourceCompression;
+        this.targetStream = targetStream;
+        this.targetCompression = targetCompression;
+        this.ownsSource = ownsSource;
+    }
+
+    /**
+     * Copy all matching entries from the source to the target archive.
+     *
+     * @return Number of entries written, not counting the index
+     *
+     * @throws IOException If reading or writing failed
+     */
+    public long transcode() throws IOException
+    {
+        Path index = this.indexName == null ? null : Files.createTempFile("tar-index", ".tsv");
+        long count = 0;
+
+        try (
+            BufferedOutputStream outputStream = new BufferedOutputStream(
+                this.throttle == null ? this.targetStream : this.throttle.wrap(this.targetStream)
+            );
+            Writer indexWriter = index == null ? null : Files.newBufferedWriter(index, StandardCharsets.UTF_8)
+        ) {
+            TarArchiveInputStream source = new TarArchiveInputStream(
+                this.sourceCompression.decompress(new BufferedInputStream(
+                    this.throttle == null ? this.sourceStream : this.throttle.wrap(this.sourceStream)
+                ))
+            );
+            TarArchiveOutputStream target = new TarArchiveOutputStream(this.targetCompression.compress(outputStream));
+            target.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            target.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_STAR);
+
+            try {
+                TarArchiveEntry entry;
+                while ((entry = source.getNextEntry()) != null) {
+                    if (!this.filter.test(entry)) {
+                        continue;
+                    }
+
+                    entry.setName(this.rename.apply(entry.getName()));
+
+                    if (entry.isSparse()) {
+                        // The source stream expands the holes, so the entry has to be written as sparse again.
+                        SparseFiles.writeEntry(
+                            target,
+                            entry,
+                            entry.getRealSize(),
+                            entry.getOrderedSparseHeaders(),
+                            source
+                        );
+                    } else {
+                        target.putArchiveEntry(entry);
+                        source.transferTo(target);
+                        target.closeArchiveEntry();
+                    }
+
+                    count++;
+
+                    if (indexWriter != null) {
+                        this.writeIndexLine(indexWriter, entry);
+                    }
+                }
+            } finally {
+                if (this.ownsSource) {
+                    source.close();
+                }
+            }
+
+            if (indexWriter != null) {
+                indexWriter.flush();
+                TarArchiveEntry indexEntry = new TarArchiveEntry(this.indexName);
+                indexEntry.setSize(Files.size(index));
+                target.putArchiveEntry(indexEntry);
+                Files.copy(index, target);
+                target.closeArchiveEntry();
+            }
+
+            target.finish();
+            target.close();
+        } finally {
+            if (index != null) {
+                Files.deleteIfExists(index);
+            }
+        }
+
+        return count;
+    }
+
+    private void writeIndexLine(Writer writer, TarArchiveEntry entry) throws IOException
+    {
+        writer.write(escape(entry.getName()));
+        writer.write('\t');
+        writer.write(Long.toString(entry.getRealSize()));
+        writer.write('\t');
+        writer.write(Long.toString(entry.getLastModifiedDate().getTime()));
+        writer.write('\n');
+    }
+
+    /**
+     * Escape backslashes, tabs and line breaks, so every entry stays on a single line.
+     *
+     * @param name The entry name
+     *
+     * @return Escaped name
+     */
+    private static String escape(String name)
+    {
+        if (name.indexOf('\\') < 0 && name.indexOf('\t') < 0 && name.indexOf('\n') < 0) {
+            return name;
+        }
+
+        return name.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.comparator;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * A locale aware comparator, e.g. sorting German umlauts next to their base letters.
+ * Comparing single pairs collates both strings on every call. Sorting with {@link #sort(List)} instead computes the
+ * collation key of every element only once and sorts by the keys.
+ *
+ * Every comparator uses its own copy of the collator, so changing the collator afterwards has no effect.
+ *
+ * @param <T> Type of the compared objects
+ *
+ * @author Marian Pollzien
+ */
+public class CollatorComparator<T> implements Comparator<T> {
+    private final Collator collator;
+    private final Function<? super T, String> keyExtractor;
+
+    /**
+     * Create a comparator using the collator of the given locale.
+     *
+     * @param locale       The locale
+     * @param keyExtractor Function returning the string to compare of an object
+     */
+    public CollatorComparator(Locale locale, Function<? super T, String> keyExtractor) {
+        this(Collator.getInstance(locale), keyExtractor);
+    }
+
+    /**
+     * Create a comparator using the given collator.
+     *
+     * @param collator     The collator, copied so later changes don't affect this comparator
+     * @param keyExtractor Function returning the string to compare of an object
+     */
+    public CollatorComparator(Collator collator, Function<? super T, String> keyExtractor) {
+        this.collator = (Collator) collator.clone();
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Create a comparator comparing the string representations of objects, like {@link StringComparator}.
+     *
+     * @param locale The locale
+     *
+     * @return The comparator
+     */
+    public static CollatorComparator<Object> of(Locale locale) {
+        return new CollatorComparator<>(locale, Object::toString);
+    }
+
+    /**
+     * Create a comparator comparing the strings returned by the given function.
+     *
+     * @param locale       The locale
+     * @param keyExtractor Function returning the string to compare of an object
+     * @param <T>          Type of the compared objects
+     *
+     * @return The comparator
+     */
+    public static <T> CollatorComparator<T> of(Locale locale, Function<? super T, String> keyExtractor) {
+        return new CollatorComparator<>(locale, keyExtractor);
+    }
+
+    /**
+     * Create a comparator with the same settings but another strength, e.g. {@link Collator#PRIMARY} to ignore case
+     * and accents.
+     *
+     * @param strength Strength of the collator
+     *
+     * @return New comparator
+     */
+    public CollatorComparator<T> withStrength(int strength) {
+        Collator collator = (Collator) this.collator.clone();
+        collator.setStrength(strength);
+
+        return new CollatorComparator<>(collator, this.keyExtractor);
+    }
+
+    /**
+     * Compare two objects.
+     *
+     * @param o1 First object
+     * @param o2 Second object
+     *
+     * @return A value less than, equal to or greater than {@code 0} if the first object is sorted before, equal to or
+     *         after the second one.
+     */
+    @Override
+    public int compare(T o1, T o2) {
+        return this.collator.compare(this.keyExtractor.apply(o1), this.keyExtractor.apply(o2));
+    }
+
+    /**
+     * Get the collation key of an object. Comparing keys gives the same result as comparing the objects, but is
+     * much faster.
+     *
+     * @param object The object
+     *
+     * @return The collation key
+     */
+    public CollationKey getCollationKey(T object) {
+        return this.collator.getCollationKey(this.keyExtractor.apply(object));
+    }
+
+    /**
+     * Sort a list, computing the collation key of every element only once. The sort is stable.
+     *
+     * @param list The list to sort
+     */
+    public void sort(List<T> list) {
+        Decorated<T>[] decorated = this.decorate(list);
+        ListIterator<T> iterator = list.listIterator();
+
+        for (Decorated<T> element : decorated) {
+            iterator.next();
+            iterator.set(element.value);
+        }
+    }
+
+    /**
+     * Sort an array, computing the collation key of every element only once. The sort is stable.
+     *
+     * @param array The array to sort
+     */
+    public void sort(T[] array) {
+        Decorated<T>[] decorated = this.decorate(Arrays.asList(array));
+
+        for (int i = 0; i < decorated.length; i++) {
+            array[i] = decorated[i].value;
+        }
+    }
+
+    /**
+     * Get a sorted copy of a collection, computing the collation key of every element only once.
+     *
+     * @param collection The collection
+     *
+     * @return New sorted list
+     */
+    public List<T> sorted(Collection<? extends T> collection) {
+        List<T> list = new ArrayList<>(collection);
+        this.sort(list);
+
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Decorated<T>[] decorate(Collection<T> elements) {
+        Decorated<T>[] decorated = (Decorated<T>[]) new Decorated<?>[elements.size()];
+        int index = 0;
+
+        for (T element : elements) {
+            decorated[index++] = new Decorated<>(this.getCollationKey(element), element);
+        }
+
+        Arrays.sort(decorated);
+
+        return decorated;
+    }
+
+    /**
+     * Element of a list to sort together with its collation key.
+     */
+    private static final class Decorated<T> implements Comparable<Decorated<T>> {
+        private final CollationKey key;
+        private final T value;
+
+        private Decorated(CollationKey key, T value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(Decorated<T> other) {
+            return this.key.compareTo(other.key);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.comparator;
+
+import java.util.Comparator;
+
+/**
+ * A comparator sorting strings the way people expect, e.g. "file2" before "file10".
+ * Runs of digits are compared by their numeric value, everything else is compared ignoring case. Numbers may have any
+ * length, they are never parsed. The strings are scanned in place, so comparing allocates nothing.
+ *
+ * Strings only differing in leading zeros or case are ordered by the fewer leading zeros first and then by case, so
+ * only equal strings compare as equal.
+ *
+ * @author Marian Pollzien
+ */
+public class NaturalOrderComparator implements Comparator<CharSequence> {
+    /**
+     * Compare two strings in natural order.
+     *
+     * @param s1 First string
+     * @param s2 Second string
+     *
+     * @return A value less than, equal to or greater than {@code 0} if the first string is sorted before, equal to or
+     *         after the second one.
+     */
+    @Override
+    public int compare(CharSequence s1, CharSequence s2) {
+        int length1 = s1.length();
+        int length2 = s2.length();
+        int i = 0;
+        int j = 0;
+        // Decides between strings only differing in leading zeros, the first difference wins.
+        int zeros = 0;
+
+        while (i < length1 && j < length2) {
+            char c1 = s1.charAt(i);
+            char c2 = s2.charAt(j);
+
+            if (Character.isDigit(c1) && Character.isDigit(c2)) {
+                int start1 = i;
+                int start2 = j;
+
+                while (i < length1 && Character.digit(s1.charAt(i), 10) == 0) {
+                    i++;
+                }
+
+                while (j < length2 && Character.digit(s2.charAt(j), 10) == 0) {
+                    j++;
+                }
+
+                if (zeros == 0) {
+                    zeros = (i - start1) - (j - start2);
+                }
+
+                int end1 = skipDigits(s1, i);
+                int end2 = skipDigits(s2, j);
+
+                // Without leading zeros the longer number is the larger one.
+                if (end1 - i != end2 - j) {
+                    return (end1 - i) - (end2 - j);
+                }
+
+                for (; i < end1; i++, j++) {
+                    int difference = Character.digit(s1.charAt(i), 10) - Character.digit(s2.charAt(j), 10);
+
+                    if (difference != 0) {
+                        return difference;
+                    }
+                }
+
+                continue;
+            }
+
+            if (c1 != c2) {
+                int difference = compareIgnoringCase(c1, c2);
+
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+
+            i++;
+            j++;
+        }
+
+        if (i < length1 || j < length2) {
+            return i < length1 ? 1 : -1;
+        }
+
+        if (zeros != 0) {
+            return zeros;
+        }
+
+        return compareExactly(s1, s2);
+    }
+
+    private static int skipDigits(CharSequence s, int index) {
+        int length = s.length();
+
+        while (index < length && Character.isDigit(s.charAt(index))) {
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * Compare two characters ignoring case, like {@link String#CASE_INSENSITIVE_ORDER}.
+     */
+    private static int compareIgnoringCase(char c1, char c2) {
+        c1 = Character.toUpperCase(c1);
+        c2 = Character.toUpperCase(c2);
+
+        if (c1 != c2) {
+            c1 = Character.toLowerCase(c1);
+            c2 = Character.toLowerCase(c2);
+
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+
+        return 0;
+    }
+
+    private static int compareExactly(CharSequence s1, CharSequence s2) {
+        int length = Math.min(s1.length(), s2.length());
+
+        for (int i = 0; i < length; i++) {
+            if (s1.charAt(i) != s2.charAt(i)) {
+                return s1.charAt(i) - s2.charAt(i);
+            }
+        }
+
+        return s1.length() - s2.length();
+    }
+}
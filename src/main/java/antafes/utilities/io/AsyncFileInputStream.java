@@ -0,0 +1,433 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * An input stream reading a file through an {@link AsynchronousFileChannel}.
+ * The stream keeps up to {@code queueDepth} reads ahead of the consumer in flight. Reading ahead starts with the
+ * first read or skip, so creating a stream does not read anything. Skipping is done by moving the read position
+ * instead of reading and discarding the data.
+ *
+ * @author Marian Pollzien
+ */
+public class AsyncFileInputStream extends InputStream
+{
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    public static final int DEFAULT_QUEUE_DEPTH = 8;
+
+    private final AsynchronousFileChannel channel;
+    private final Slot[] slots;
+    private int head = 0;
+    private long nextReadPosition;
+    private boolean endReached = false;
+    private boolean started = false;
+    private boolean closed = false;
+
+    /**
+     * Create a new stream with the default buffer size and queue depth.
+     *
+     * @param file The file to read
+     *
+     * @throws IOException If the file could not be opened
+     */
+    public AsyncFileInputStream(Path file) throws IOException
+    {
+        this(file, DEFAULT_BUFFER_SIZE, DEFAULT_QUEUE_DEPTH);
+    }
+
+    /**
+     * Create a new stream.
+     *
+     * @param file       The file to read
+     * @param bufferSize Size of a single read request
+     * @param queueDepth Maximum number of reads in flight
+     *
+     * @throws IOException If the file could not be opened
+     */
+    public AsyncFileInputStream(Path file, int bufferSize, int queueDepth) throws IOException
+    {
+        if (bufferSize <= 0 || queueDepth <= 0) {
+            throw new IllegalArgumentException("Buffer size and queue depth have to be positive");
+        }
+
+        this.channel = AsynchronousFileChannel.open(file, StandardOpenOption.READ);
+        this.slots = new Slot[queueDepth];
+
+        for (int i = 0; i < queueDepth; i++) {
+            this.slots[i] = new Slot(ByteBuffer.allocateDirect(bufferSize));
+        }
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        ByteBuffer buffer = this.currentBuffer();
+
+        if (buffer == null) {
+            return -1;
+        }
+
+        return buffer.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (len == 0) {
+            return 0;
+        }
+
+        int total = 0;
+
+        while (total < len) {
+            ByteBuffer buffer = total == 0 ? this.currentBuffer() : this.availableBuffer();
+
+            if (buffer == null) {
+                break;
+            }
+
+            int chunk = Math.min(len - total, buffer.remaining());
+            buffer.get(b, off + total, chunk);
+            total += chunk;
+        }
+
+        return total == 0 ? -1 : total;
+    }
+
+    /**
+     * Skip the given amount of bytes. If the target lies outside of the read ahead window, the pending reads are
+     * discarded and reading restarts at the target position.
+     *
+     * @param n Number of bytes to skip
+     *
+     * @return Number of bytes actually skipped
+     *
+     * @throws IOException If the stream is closed or reading failed
+     */
+    @Override
+    public long skip(long n) throws IOException
+    {
+        this.checkOpen();
+
+        if (n <= 0) {
+            return 0;
+        }
+
+        long start = this.position();
+        long target = Math.min(start + n, Math.max(start, this.channel.size()));
+
+        if (!this.started) {
+            this.restartAt(target);
+
+            return target - start;
+        }
+
+        if (target < this.nextReadPosition) {
+            while (true) {
+                ByteBuffer buffer = this.currentBuffer();
+
+                if (buffer == null) {
+                    return target - start;
+                }
+
+                Slot slot = this.slots[this.head];
+
+                if (target < slot.position + buffer.limit()) {
+                    buffer.position((int) (target - slot.position));
+
+                    return target - start;
+                }
+
+                buffer.position(buffer.limit());
+            }
+        }
+
+        this.awaitAll();
+        this.restartAt(target);
+
+        return target - start;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        this.checkOpen();
+        Slot slot = this.slots[this.head];
+
+        return slot.current == null ? 0 : slot.current.remaining();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        this.channel.close();
+    }
+
+    /**
+     * Get the current read position inside of the file.
+     *
+     * @return Read position
+     */
+    public long position()
+    {
+        Slot slot = this.slots[this.head];
+
+        return slot.position + (slot.current == null ? 0 : slot.current.position());
+    }
+
+    /**
+     * Get the buffer of the head slot, waiting for its read if necessary and moving on to the next slot once the
+     * buffer has been consumed.
+     *
+     * @return The buffer with remaining data or null at the end of the file
+     *
+     * @throws IOException If the stream is closed or reading failed
+     */
+    private ByteBuffer currentBuffer() throws IOException
+    {
+        this.checkOpen();
+
+        if (!this.started) {
+            this.restartAt(0);
+        }
+
+        while (true) {
+            Slot slot = this.slots[this.head];
+
+            if (slot.current == null) {
+                int read = this.await(slot);
+
+                if (read <= 0) {
+                    return null;
+                }
+
+                slot.buffer.flip();
+                slot.current = slot.buffer;
+            }
+
+            if (slot.current.hasRemaining()) {
+                return slot.current;
+            }
+
+            this.advance();
+        }
+    }
+
+    /**
+     * Same as {@link #currentBuffer()} but does not block on reads still in flight.
+     *
+     * @return The buffer with remaining data or null if none is ready
+     *
+     * @throws IOException If reading failed
+     */
+    private ByteBuffer availableBuffer() throws IOException
+    {
+        Slot slot = this.slots[this.head];
+
+        if (slot.current != null && slot.current.hasRemaining()) {
+            return slot.current;
+        }
+
+        if (slot.current != null) {
+            this.advance();
+            slot = this.slots[this.head];
+        }
+
+        if (!slot.result.isDone()) {
+            return null;
+        }
+
+        return this.currentBuffer();
+    }
+
+    /**
+     * Re-issue the consumed head slot for the next part of the file and move the head forward.
+     */
+    private void advance()
+    {
+        Slot slot = this.slots[this.head];
+        this.issue(slot);
+        this.head = (this.head + 1) % this.slots.length;
+    }
+
+    /**
+     * Discard all slots and start reading at the given position.
+     *
+     * @param position Position to read from
+     */
+    private void restartAt(long position)
+    {
+        this.started = true;
+        this.nextReadPosition = position;
+        this.endReached = false;
+        this.head = 0;
+
+        for (Slot slot : this.slots) {
+            this.issue(slot);
+        }
+    }
+
+    /**
+     * Start reading the next part of the file into the given slot.
+     *
+     * @param slot The slot to fill
+     */
+    private void issue(Slot slot)
+    {
+        slot.buffer.clear();
+        slot.current = null;
+        slot.position = this.nextReadPosition;
+        slot.result = new CompletableFuture<>();
+
+        if (this.endReached) {
+            slot.result.complete(-1);
+
+            return;
+        }
+
+        this.nextReadPosition += slot.buffer.capacity();
+        this.channel.read(slot.buffer, slot.position, 0, new ReadHandler(slot));
+    }
+
+    /**
+     * Wait for all reads in flight, ignoring their results.
+     *
+     * @throws IOException If interrupted while waiting
+     */
+    private void awaitAll() throws IOException
+    {
+        for (Slot slot : this.slots) {
+            try {
+                slot.result.get();
+            } catch (ExecutionException ignored) {
+                // The data is discarded anyway.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for pending reads");
+            }
+        }
+    }
+
+    private int await(Slot slot) throws IOException
+    {
+        try {
+            int read = slot.result.get();
+
+            if (read < slot.buffer.capacity()) {
+                this.endReached = true;
+            }
+
+            return read;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a read");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException
+                ? (IOException) e.getCause()
+                : new IOException("Asynchronous read failed", e.getCause());
+        }
+    }
+
+    private void checkOpen() throws IOException
+    {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * A single read request together with its buffer.
+     */
+    private static class Slot
+    {
+        private final ByteBuffer buffer;
+        private ByteBuffer current;
+        private long position;
+        private CompletableFuture<Integer> result;
+
+        private Slot(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Completion handler continuing short reads until the buffer is full or the end of the file is reached.
+     * The attachment holds the bytes read so far.
+     */
+    private class ReadHandler implements CompletionHandler<Integer, Integer>
+    {
+        private final Slot slot;
+
+        private ReadHandler(Slot slot)
+        {
+            this.slot = slot;
+        }
+
+        @Override
+        public void completed(Integer read, Integer total)
+        {
+            if (read < 0) {
+                this.slot.result.complete(total);
+
+                return;
+            }
+
+            int sum = total + read;
+
+            if (this.slot.buffer.hasRemaining()) {
+                AsyncFileInputStream.this.channel.read(this.slot.buffer, this.slot.position + sum, sum, this);
+
+                return;
+            }
+
+            this.slot.result.complete(sum);
+        }
+
+        @Override
+        public void failed(Throwable exc, Integer total)
+        {
+            this.slot.result.completeExceptionally(exc);
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An output stream writing to a file through an {@link AsynchronousFileChannel}.
+ * Full buffers are handed to the channel and written in the background while the caller keeps filling the next
+ * buffer, so up to {@code queueDepth} writes are in flight at the same time.
+ *
+ * @author Marian Pollzien
+ */
+public class AsyncFileOutputStream extends OutputStream
+{
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    public static final int DEFAULT_QUEUE_DEPTH = 8;
+
+    private final AsynchronousFileChannel channel;
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+    private final int queueDepth;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private ByteBuffer current;
+    private long position = 0;
+    private boolean closed = false;
+
+    /**
+     * Create a new stream with the default buffer size and queue depth.
+     * An existing file will be truncated.
+     *
+     * @param file The file to write to
+     *
+     * @throws IOException If the file could not be opened
+     */
+    public AsyncFileOutputStream(Path file) throws IOException
+    {
+        this(file, DEFAULT_BUFFER_SIZE, DEFAULT_QUEUE_DEPTH);
+    }
+
+    /**
+     * Create a new stream. An existing file will be truncated.
+     *
+     * @param file       The file to write to
+     * @param bufferSize Size of a single write request
+     * @param queueDepth Maximum number of writes in flight
+     *
+     * @throws IOException If the file could not be opened
+     */
+    public AsyncFileOutputStream(Path file, int bufferSize, int queueDepth) throws IOException
+    {
+        if (bufferSize <= 0 || queueDepth <= 0) {
+            throw new IllegalArgumentException("Buffer size and queue depth have to be positive");
+        }
+
+        this.channel = AsynchronousFileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        );
+        this.queueDepth = queueDepth;
+        this.freeBuffers = new ArrayBlockingQueue<>(queueDepth);
+
+        for (int i = 0; i < queueDepth; i++) {
+            this.freeBuffers.add(ByteBuffer.allocateDirect(bufferSize));
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        this.ensureBuffer();
+        this.current.put((byte) b);
+
+        if (!this.current.hasRemaining()) {
+            this.submit();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        while (len > 0) {
+            this.ensureBuffer();
+            int chunk = Math.min(len, this.current.remaining());
+            this.current.put(b, off, chunk);
+            off += chunk;
+            len -= chunk;
+
+            if (!this.current.hasRemaining()) {
+                this.submit();
+            }
+        }
+    }
+
+    /**
+     * Submit the pending buffer and wait until every outstanding write has completed.
+     *
+     * @throws IOException If one of the writes failed
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        this.checkOpen();
+
+        if (this.current != null && this.current.position() > 0) {
+            this.submit();
+        }
+
+        this.awaitOutstanding();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (this.closed) {
+            return;
+        }
+
+        try {
+            this.flush();
+        } finally {
+            this.closed = true;
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Take a free buffer if none is currently filled. Blocks while all buffers are in flight.
+     *
+     * @throws IOException If the stream is closed or a previous write failed
+     */
+    private void ensureBuffer() throws IOException
+    {
+        this.checkOpen();
+
+        if (this.current == null) {
+            this.current = this.takeBuffer();
+        }
+    }
+
+    /**
+     * Hand the current buffer to the channel.
+     */
+    private void submit()
+    {
+        ByteBuffer buffer = this.current;
+        this.current = null;
+        buffer.flip();
+        long writePosition = this.position;
+        this.position += buffer.remaining();
+        this.channel.write(buffer, writePosition, writePosition, new WriteHandler(buffer));
+    }
+
+    /**
+     * Wait until all buffers have been returned by the completion handler.
+     *
+     * @throws IOException If one of the writes failed
+     */
+    private void awaitOutstanding() throws IOException
+    {
+        ByteBuffer[] buffers = new ByteBuffer[this.queueDepth];
+        int taken = this.current == null ? 0 : 1;
+        int index = 0;
+
+        try {
+            while (taken + index < this.queueDepth) {
+                buffers[index++] = this.freeBuffers.take();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for pending writes");
+        } finally {
+            for (int i = 0; i < index; i++) {
+                this.freeBuffers.add(buffers[i]);
+            }
+        }
+
+        this.checkFailure();
+    }
+
+    private ByteBuffer takeBuffer() throws IOException
+    {
+        try {
+            ByteBuffer buffer = this.freeBuffers.take();
+            this.checkFailure();
+
+            return buffer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free buffer");
+        }
+    }
+
+    private void checkOpen() throws IOException
+    {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+
+        this.checkFailure();
+    }
+
+    private void checkFailure() throws IOException
+    {
+        Throwable throwable = this.failure.get();
+
+        if (throwable != null) {
+            throw throwable instanceof IOException
+                ? (IOException) throwable
+                : new IOException("Asynchronous write failed", throwable);
+        }
+    }
+
+    /**
+     * Completion handler re-issuing partial writes and returning the buffer to the pool once it is written.
+     */
+    private class WriteHandler implements CompletionHandler<Integer, Long>
+    {
+        private final ByteBuffer buffer;
+
+        private WriteHandler(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void completed(Integer written, Long writePosition)
+        {
+            if (this.buffer.hasRemaining()) {
+                long next = writePosition + written;
+                AsyncFileOutputStream.this.channel.write(this.buffer, next, next, this);
+
+                return;
+            }
+
+            this.release();
+        }
+
+        @Override
+        public void failed(Throwable exc, Long writePosition)
+        {
+            AsyncFileOutputStream.this.failure.compareAndSet(null, exc);
+            this.release();
+        }
+
+        private void release()
+        {
+            this.buffer.clear();
+            AsyncFileOutputStream.this.freeBuffers.add(this.buffer);
+        }
+    }
+}
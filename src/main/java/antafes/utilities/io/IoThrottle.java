@@ -0,0 +1,371 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.io;
+
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets limiting the bandwidth and the number of operations of streams wrapped with it.
+ * Reading and writing have separate limits, so copying through a read and a write stream of the same throttle charges
+ * every byte only once on each side. One throttle can be shared by several streams, the limits of a side are shared
+ * then. All limits can be changed at runtime.
+ *
+ * In adaptive mode the throttle watches the latency of reads. When it rises well above the lowest latency seen so
+ * far, the limits are scaled down multiplicatively and slowly raised again once the latency recovers. The adaptive
+ * mode only scales limits that have been set.
+ *
+ * @author Marian Pollzien
+ */
+public class IoThrottle
+{
+    /**
+     * Largest chunk passed to the underlying stream at once, so a single large request does not exhaust the bucket.
+     */
+    static final int MAX_CHUNK = 64 * 1024;
+
+    private static final double MIN_FACTOR = 0.05;
+    private static final double BACK_OFF = 0.7;
+    private static final double RECOVERY = 0.02;
+    private static final double CONGESTION_RATIO = 2.0;
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_DRIFT = 0.001;
+
+    private final Bucket readBytes = new Bucket();
+    private final Bucket readOperations = new Bucket();
+    private final Bucket writeBytes = new Bucket();
+    private final Bucket writeOperations = new Bucket();
+    private volatile boolean adaptive = false;
+    private double factor = 1.0;
+    private double latency = -1;
+    private double baseline = -1;
+
+    /**
+     * Create a throttle without any limits.
+     */
+    public IoThrottle()
+    {
+    }
+
+    /**
+     * Create a throttle with the given limits for reading and the same limits for writing.
+     *
+     * @param bytesPerSecond      Bandwidth limit of each side, 0 for no limit
+     * @param operationsPerSecond Limit of calls per second of each side, 0 for no limit
+     */
+    public IoThrottle(long bytesPerSecond, long operationsPerSecond)
+    {
+        this.setBytesPerSecond(bytesPerSecond);
+        this.setOperationsPerSecond(operationsPerSecond);
+    }
+
+    /**
+     * Set the bandwidth limit of reading and of writing.
+     *
+     * @param bytesPerSecond Bytes per second of each side, 0 for no limit
+     */
+    public void setBytesPerSecond(long bytesPerSecond)
+    {
+        this.setReadBytesPerSecond(bytesPerSecond);
+        this.setWriteBytesPerSecond(bytesPerSecond);
+    }
+
+    /**
+     * Set the limit of operations of reading and of writing.
+     *
+     * @param operationsPerSecond Calls per second of each side, 0 for no limit
+     */
+    public void setOperationsPerSecond(long operationsPerSecond)
+    {
+        this.setReadOperationsPerSecond(operationsPerSecond);
+        this.setWriteOperationsPerSecond(operationsPerSecond);
+    }
+
+    /**
+     * Set the bandwidth limit of reading.
+     *
+     * @param bytesPerSecond Bytes per second, 0 for no limit
+     */
+    public void setReadBytesPerSecond(long bytesPerSecond)
+    {
+        this.readBytes.setRate(bytesPerSecond);
+    }
+
+    /**
+     * Set the limit of read operations.
+     *
+     * @param operationsPerSecond Read and skip calls per second, 0 for no limit
+     */
+    public void setReadOperationsPerSecond(long operationsPerSecond)
+    {
+        this.readOperations.setRate(operationsPerSecond);
+    }
+
+    /**
+     * Set the bandwidth limit of writing.
+     *
+     * @param bytesPerSecond Bytes per second, 0 for no limit
+     */
+    public void setWriteBytesPerSecond(long bytesPerSecond)
+    {
+        this.writeBytes.setRate(bytesPerSecond);
+    }
+
+    /**
+     * Set the limit of write operations.
+     *
+     * @param operationsPerSecond Write calls per second, 0 for no limit
+     */
+    public void setWriteOperationsPerSecond(long operationsPerSecond)
+    {
+        this.writeOperations.setRate(operationsPerSecond);
+    }
+
+    /**
+     * Enable or disable the adaptive mode. Disabling it restores the configured limits.
+     *
+     * @param adaptive Whether the limits should follow the read latency
+     */
+    public synchronized void setAdaptive(boolean adaptive)
+    {
+        this.adaptive = adaptive;
+
+        if (!adaptive) {
+            this.setFactor(1.0);
+        }
+    }
+
+    public long getReadBytesPerSecond()
+    {
+        return this.readBytes.rate;
+    }
+
+    public long getReadOperationsPerSecond()
+    {
+        return this.readOperations.rate;
+    }
+
+    public long getWriteBytesPerSecond()
+    {
+        return this.writeBytes.rate;
+    }
+
+    public long getWriteOperationsPerSecond()
+    {
+        return this.writeOperations.rate;
+    }
+
+    public boolean isAdaptive()
+    {
+        return this.adaptive;
+    }
+
+    /**
+     * Get the factor the adaptive mode currently applies to the limits.
+     *
+     * @return Factor between 0.05 and 1
+     */
+    public synchronized double getFactor()
+    {
+        return this.factor;
+    }
+
+    /**
+     * Wait until the given amount of bytes may be read in a single operation.
+     *
+     * @param amount Number of bytes
+     *
+     * @throws InterruptedIOException If interrupted while waiting
+     */
+    public void acquireRead(int amount) throws InterruptedIOException
+    {
+        sleep(Math.max(this.readOperations.reserve(1), this.readBytes.reserve(amount)));
+    }
+
+    /**
+     * Wait until the given amount of bytes may be written in a single operation.
+     *
+     * @param amount Number of bytes
+     *
+     * @throws InterruptedIOException If interrupted while waiting
+     */
+    public void acquireWrite(int amount) throws InterruptedIOException
+    {
+        sleep(Math.max(this.writeOperations.reserve(1), this.writeBytes.reserve(amount)));
+    }
+
+    private static void sleep(long wait) throws InterruptedIOException
+    {
+        if (wait <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while throttled");
+        }
+    }
+
+    /**
+     * Record the latency of a read. Only used in adaptive mode.
+     *
+     * @param nanos Duration of the read in nanoseconds
+     */
+    public void recordReadLatency(long nanos)
+    {
+        if (!this.adaptive) {
+            return;
+        }
+
+        synchronized (this) {
+            this.latency = this.latency < 0 ? nanos : this.latency + SMOOTHING * (nanos - this.latency);
+
+            if (this.baseline < 0 || this.latency < this.baseline) {
+                this.baseline = this.latency;
+            }
+
+            if (this.latency > this.baseline * CONGESTION_RATIO) {
+                this.setFactor(Math.max(MIN_FACTOR, this.factor * BACK_OFF));
+                // Start over, so one slow read does not cause several back offs in a row.
+                this.latency = this.baseline;
+            } else {
+                // Let the baseline follow slowly, so a single very fast read does not stay the reference forever.
+                this.baseline += BASELINE_DRIFT * (this.latency - this.baseline);
+
+                if (this.factor < 1.0) {
+                    this.setFactor(Math.min(1.0, this.factor + RECOVERY));
+                }
+            }
+        }
+    }
+
+    /**
+     * Wrap an input stream with this throttle.
+     *
+     * @param inputStream The stream to throttle
+     *
+     * @return Throttled stream
+     */
+    public InputStream wrap(InputStream inputStream)
+    {
+        return new ThrottledInputStream(inputStream, this);
+    }
+
+    /**
+     * Wrap an output stream with this throttle.
+     *
+     * @param outputStream The stream to throttle
+     *
+     * @return Throttled stream
+     */
+    public OutputStream wrap(OutputStream outputStream)
+    {
+        return new ThrottledOutputStream(outputStream, this);
+    }
+
+    private void setFactor(double factor)
+    {
+        this.factor = factor;
+        this.readBytes.setFactor(factor);
+        this.readOperations.setFactor(factor);
+        this.writeBytes.setFactor(factor);
+        this.writeOperations.setFactor(factor);
+    }
+
+    /**
+     * A token bucket allowing bursts of up to one second. Tokens may go negative, the caller then waits until the
+     * debt has been paid off.
+     */
+    private static class Bucket
+    {
+        private volatile long rate = 0;
+        private double factor = 1.0;
+        private double tokens = 0;
+        private long lastRefill = System.nanoTime();
+
+        synchronized void setRate(long rate)
+        {
+            if (rate < 0) {
+                throw new IllegalArgumentException("Rate must not be negative");
+            }
+
+            this.refill();
+            this.rate = rate;
+            this.tokens = Math.min(this.tokens, this.effectiveRate());
+        }
+
+        synchronized void setFactor(double factor)
+        {
+            this.refill();
+            this.factor = factor;
+        }
+
+        /**
+         * Take the given amount of tokens.
+         *
+         * @return Nanoseconds to wait before the tokens are available
+         */
+        long reserve(int amount)
+        {
+            if (this.rate == 0) {
+                return 0;
+            }
+
+            synchronized (this) {
+                if (this.rate == 0) {
+                    return 0;
+                }
+
+                this.refill();
+                this.tokens -= amount;
+
+                if (this.tokens >= 0) {
+                    return 0;
+                }
+
+                return (long) (-this.tokens / this.effectiveRate() * TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+
+        private void refill()
+        {
+            long now = System.nanoTime();
+
+            if (this.rate > 0) {
+                double elapsed = (now - this.lastRefill) / (double) TimeUnit.SECONDS.toNanos(1);
+                this.tokens = Math.min(this.effectiveRate(), this.tokens + elapsed * this.effectiveRate());
+            }
+
+            this.lastRefill = now;
+        }
+
+        private double effectiveRate()
+        {
+            return this.rate * this.factor;
+        }
+    }
+}
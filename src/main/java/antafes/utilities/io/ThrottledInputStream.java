@@ -0,0 +1,81 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream limited by the read limits of an {@link IoThrottle}. Every read or skip of the underlying stream counts
+ * as one operation, skipped bytes count like read ones.
+ *
+ * @author Marian Pollzien
+ */
+public class ThrottledInputStream extends FilterInputStream
+{
+    private final IoThrottle throttle;
+
+    public ThrottledInputStream(InputStream in, IoThrottle throttle)
+    {
+        super(in);
+        this.throttle = throttle;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        this.throttle.acquireRead(1);
+        long start = System.nanoTime();
+        int value = super.read();
+        this.throttle.recordReadLatency(System.nanoTime() - start);
+
+        return value;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        int length = Math.min(len, IoThrottle.MAX_CHUNK);
+        this.throttle.acquireRead(length);
+        long start = System.nanoTime();
+        int read = this.in.read(b, off, length);
+        this.throttle.recordReadLatency(System.nanoTime() - start);
+
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    {
+        int length = (int) Math.min(Math.max(n, 0), IoThrottle.MAX_CHUNK);
+
+        if (length == 0) {
+            return 0;
+        }
+
+        this.throttle.acquireRead(length);
+
+        return this.in.skip(length);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream limited by the write limits of an {@link IoThrottle}. Every write to the underlying stream counts as
+ * one operation.
+ *
+ * @author Marian Pollzien
+ */
+public class ThrottledOutputStream extends FilterOutputStream
+{
+    private final IoThrottle throttle;
+
+    public ThrottledOutputStream(OutputStream out, IoThrottle throttle)
+    {
+        super(out);
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        this.throttle.acquireWrite(1);
+        this.out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        while (len > 0) {
+            int length = Math.min(len, IoThrottle.MAX_CHUNK);
+            this.throttle.acquireWrite(length);
+            this.out.write(b, off, length);
+            off += length;
+            len -= length;
+        }
+    }
+}
@@ -21,6 +21,8 @@
  */
 package antafes.utilities.language;
 
+import java.util.Locale;
+
 /**
  * Language class for english.
  *
@@ -31,67 +33,7 @@ public class English extends Language {
      * Create a new english language object.
      */
     public English() {
-        this.languages();
-        this.general();
-        this.menu();
-        this.about();
-    }
-
-    /**
-     * List of available languages.
-     */
-    private void languages() {
-        this.getTranslations().put("english", "English");
-        this.getTranslations().put("german", "German");
-    }
-
-    /**
-     * General texts like the programs title.
-     */
-    private void general() {
-        this.getTranslations().put("title", "Vampire Editor");
-        this.getTranslations().put("darkAgesVampire", "Dark Ages: Vampire");
-        this.getTranslations().put("cancel", "Cancel");
-        this.getTranslations().put("next", "Next");
-        this.getTranslations().put("ok", "Ok");
-        this.getTranslations().put("back", "Back");
-        this.getTranslations().put("finish", "Finish");
-        this.getTranslations().put("other", "Other");
-        this.getTranslations().put("description", "Description");
-    }
-
-    /**
-     * Texts for the menu entries.
-     */
-    private void menu() {
-        this.getTranslations().put("file", "File");
-        this.getTranslations().put("fileMnemonic", "F");
-        this.getTranslations().put("quit", "Quit");
-        this.getTranslations().put("quitMnemonic", "Q");
-        this.getTranslations().put("help", "Help");
-        this.getTranslations().put("helpMnemonic", "H");
-        this.getTranslations().put("about", "About");
-        this.getTranslations().put("aboutMnemonic", "A");
-        this.getTranslations().put("new", "New");
-        this.getTranslations().put("newMnemonic", "N");
-        this.getTranslations().put("open", "Open");
-        this.getTranslations().put("openMnemonic", "O");
-        this.getTranslations().put("save", "Save");
-        this.getTranslations().put("saveMnemonic", "S");
-        this.getTranslations().put("print", "Print");
-        this.getTranslations().put("printMnemonic", "P");
-        this.getTranslations().put("existingFile", "Existing file");
-        this.getTranslations().put("fileExists", "The selected file already exists, overwrite?");
-        this.getTranslations().put("couldNotLoad", "Could not load");
-        this.getTranslations().put("loading", "Loading file...");
-        this.getTranslations().put("close", "Close");
-    }
-
-    /**
-     * Content of the about dialog.
-     */
-    private void about() {
-        this.getTranslations().put("aboutText", "This tool was created by Marian Pollzien.");
+        super(Locale.ENGLISH);
     }
 
     /**
@@ -21,15 +21,87 @@
  */
 package antafes.utilities.language;
 
-import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
-@EqualsAndHashCode
 public abstract class Language implements LanguageInterface {
+    /**
+     * Locale of the translation bundle, null if the translations are only set by the subclass.
+     */
     @Getter
-    private final HashMap<String, String> translations = new HashMap<>();
+    private final Locale locale;
+    /**
+     * Staged translations of subclasses, null as long as the translations of the bundle are used unchanged.
+     */
+    private TranslationMap translations;
+    /**
+     * Translations used for lookups, built from the staged translations on the first lookup after a change.
+     */
+    private volatile Frozen frozen;
+    /**
+     * Parsed patterns of formatted translations, dropped whenever the translations change.
+     */
+    private volatile ConcurrentHashMap<String, MessagePattern> patterns = new ConcurrentHashMap<>();
+
+    /**
+     * Create a language filled by the subclass.
+     */
+    public Language() {
+        this(null);
+    }
+
+    /**
+     * Create a language using the translation bundle of the given locale. The bundle is loaded on first use.
+     *
+     * @param locale Locale of the translation bundle
+     */
+    public Language(Locale locale) {
+        this.locale = locale;
+    }
+
+    /**
+     * Get the translations for changing them. Translations put into the returned map replace the ones of the bundle
+     * and are used from the next translation on, also if the map is kept and changed later. The key, value and entry
+     * views of the map are read-only.
+     *
+     * @return Map of keys and translations
+     */
+    public synchronized HashMap<String, String> getTranslations() {
+        if (this.translations == null) {
+            this.translations = new TranslationMap(
+                this.locale == null ? new HashMap<>() : TranslationBundles.getTable(this.locale).toMap()
+            );
+            this.invalidate();
+        }
+
+        return this.translations;
+    }
+
+    /**
+     * Drop everything built from the translations, so it is built again on the next translation.
+     */
+    private synchronized void invalidate() {
+        this.frozen = null;
+        this.patterns = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Load the translations now instead of on the first translation.
+     */
+    public void preload() {
+        this.freeze();
+    }
 
     /**
      * Get the translation for the given key.
@@ -40,6 +112,366 @@ public abstract class Language implements LanguageInterface {
      */
     @Override
     public String translate(String key) {
-        return this.getTranslations().getOrDefault(key, key);
+        Frozen frozen = this.frozen;
+
+        if (frozen == null) {
+            frozen = this.freeze();
+        }
+
+        String translation = frozen.table.get(key);
+
+        if (TranslationStatistics.isEnabled()) {
+            TranslationStatistics.record(this, key, translation != null && this.isOwnKey(frozen, key));
+        }
+
+        return translation != null ? translation : key;
+    }
+
+    /**
+     * Get the translation for the given key by the ordinal of the key.
+     *
+     * @param key The key to translate.
+     *
+     * @return The translated string
+     */
+    @Override
+    public String translate(TranslationKey key) {
+        if (TranslationStatistics.isEnabled()) {
+            return this.translate(key.getKey());
+        }
+
+        Frozen frozen = this.frozen;
+
+        if (frozen == null) {
+            frozen = this.freeze();
+        }
+
+        return frozen.indexed[key.ordinal()];
+    }
+
+    /**
+     * Get the translation for the given key, formatted with the given arguments. The pattern of every key is parsed
+     * only once.
+     *
+     * @param key       The key to translate.
+     * @param arguments The arguments of the pattern.
+     *
+     * @return The formatted translation
+     */
+    @Override
+    public String translate(String key, Object... arguments) {
+        ConcurrentHashMap<String, MessagePattern> patterns = this.patterns;
+        MessagePattern pattern = patterns.get(key);
+
+        if (pattern == null) {
+            Locale locale = this.locale != null ? this.locale : Locale.getDefault(Locale.Category.FORMAT);
+            pattern = MessagePattern.compile(this.translate(key), locale);
+            patterns.putIfAbsent(key, pattern);
+        } else if (TranslationStatistics.isEnabled()) {
+            Frozen frozen = this.frozen;
+
+            if (frozen == null) {
+                frozen = this.freeze();
+            }
+
+            TranslationStatistics.record(this, key, frozen.table.containsKey(key) && this.isOwnKey(frozen, key));
+        }
+
+        return pattern.format(arguments);
+    }
+
+    /**
+     * Get the keys this language translates itself, without the keys only taken from the fallback bundle.
+     *
+     * @return Set of keys
+     */
+    synchronized Set<String> getOwnKeys() {
+        if (this.locale == null) {
+            return this.freeze().table.toMap().keySet();
+        }
+
+        Set<String> keys = TranslationBundles.getOwnKeys(this.locale);
+
+        if (this.translations != null) {
+            TranslationTable bundle = TranslationBundles.getTable(this.locale);
+
+            for (String key : this.translations.keySet()) {
+                if (!bundle.containsKey(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * Check whether this language translates a key itself. The own keys are only determined when needed.
+     *
+     * @param frozen The table the key has been looked up in
+     * @param key    The key
+     *
+     * @return False if the key is unknown or only translated by the fallback bundle
+     */
+    private boolean isOwnKey(Frozen frozen, String key) {
+        Set<String> ownKeys = frozen.ownKeys;
+
+        if (ownKeys == null) {
+            ownKeys = this.getOwnKeys();
+            frozen.ownKeys = ownKeys;
+        }
+
+        return ownKeys.contains(key);
+    }
+
+    /**
+     * Build the table used for lookups. Languages without own translations share the table of their bundle.
+     *
+     * @return The translation table together with the translations by ordinal
+     */
+    private synchronized Frozen freeze() {
+        if (this.frozen == null) {
+            TranslationTable table;
+
+            if (this.translations != null) {
+                table = TranslationTable.of(this.translations);
+            } else if (this.locale != null) {
+                table = TranslationBundles.getTable(this.locale);
+            } else {
+                table = TranslationTable.EMPTY;
+            }
+
+            TranslationKey[] keys = TranslationKey.values();
+            String[] indexed = new String[keys.length];
+
+            for (TranslationKey key : keys) {
+                indexed[key.ordinal()] = table.get(key.getKey(), key.getKey());
+            }
+
+            this.frozen = new Frozen(table, indexed);
+        }
+
+        return this.frozen;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (other == null || this.getClass() != other.getClass()) {
+            return false;
+        }
+
+        Language language = (Language) other;
+
+        return Objects.equals(this.locale, language.locale) && this.freeze().table.equals(language.freeze().table);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.locale, this.freeze().table);
+    }
+
+    /**
+     * The translation table and the translations of all generated keys by ordinal, replaced together.
+     */
+    private static final class Frozen {
+        private final TranslationTable table;
+        private final String[] indexed;
+        /**
+         * Keys translated by the language itself, only set once translation statistics are used.
+         */
+        private volatile Set<String> ownKeys;
+
+        private Frozen(TranslationTable table, String[] indexed) {
+            this.table = table;
+            this.indexed = indexed;
+        }
+    }
+
+    /**
+     * Map of the staged translations, dropping the table built from them on every change.
+     */
+    private final class TranslationMap extends HashMap<String, String> {
+        private static final long serialVersionUID = 1L;
+
+        private TranslationMap(Map<String, String> translations) {
+            super(translations);
+        }
+
+        @Override
+        public String put(String key, String value) {
+            synchronized (Language.this) {
+                try {
+                    return super.put(key, value);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends String> translations) {
+            synchronized (Language.this) {
+                try {
+                    super.putAll(translations);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public String remove(Object key) {
+            synchronized (Language.this) {
+                try {
+                    return super.remove(key);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            synchronized (Language.this) {
+                try {
+                    return super.remove(key, value);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public void clear() {
+            synchronized (Language.this) {
+                try {
+                    super.clear();
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public String putIfAbsent(String key, String value) {
+            synchronized (Language.this) {
+                try {
+                    return super.putIfAbsent(key, value);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public boolean replace(String key, String oldValue, String newValue) {
+            synchronized (Language.this) {
+                try {
+                    return super.replace(key, oldValue, newValue);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public String replace(String key, String value) {
+            synchronized (Language.this) {
+                try {
+                    return super.replace(key, value);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super String, ? super String, ? extends String> function) {
+            synchronized (Language.this) {
+                try {
+                    super.replaceAll(function);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public String computeIfAbsent(String key, Function<? super String, ? extends String> function) {
+            synchronized (Language.this) {
+                try {
+                    return super.computeIfAbsent(key, function);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public String computeIfPresent(
+            String key,
+            BiFunction<? super String, ? super String, ? extends String> function
+        ) {
+            synchronized (Language.this) {
+                try {
+                    return super.computeIfPresent(key, function);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public String compute(String key, BiFunction<? super String, ? super String, ? extends String> function) {
+            synchronized (Language.this) {
+                try {
+                    return super.compute(key, function);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public String merge(
+            String key,
+            String value,
+            BiFunction<? super String, ? super String, ? extends String> function
+        ) {
+            synchronized (Language.this) {
+                try {
+                    return super.merge(key, value, function);
+                } finally {
+                    Language.this.invalidate();
+                }
+            }
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return Collections.unmodifiableSet(super.keySet());
+        }
+
+        @Override
+        public Collection<String> values() {
+            return Collections.unmodifiableCollection(super.values());
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            // Wrapped as a map, so the entries can't be changed with setValue either.
+            Map<String, String> entries = new AbstractMap<String, String>() {
+                @Override
+                public Set<Map.Entry<String, String>> entrySet() {
+                    return TranslationMap.super.entrySet();
+                }
+            };
+
+            return Collections.unmodifiableMap(entries).entrySet();
+        }
     }
 }
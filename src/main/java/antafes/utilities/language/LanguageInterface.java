@@ -36,6 +36,31 @@ public interface LanguageInterface {
      */
     public String translate(String key);
 
+    /**
+     * Get the translation for the given key.
+     *
+     * @param key The key to translate.
+     *
+     * @return The translated string
+     */
+    default public String translate(TranslationKey key) {
+        return this.translate(key.getKey());
+    }
+
+    /**
+     * Get the translation for the given key, formatted with the given arguments.
+     * The translation is a pattern in the syntax of {@link java.text.MessageFormat}, e.g. "Loading {0}..." or
+     * "{0,choice,0#no files|1#one file|1&lt;{0,number,integer} files}".
+     *
+     * @param key       The key to translate.
+     * @param arguments The arguments of the pattern.
+     *
+     * @return The formatted translation
+     */
+    default public String translate(String key, Object... arguments) {
+        return java.text.MessageFormat.format(this.translate(key), arguments);
+    }
+
     /**
      * Get the language.
      *
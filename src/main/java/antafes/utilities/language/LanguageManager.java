@@ -0,0 +1,219 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.language;
+
+import antafes.utilities.ConfigurationFactory;
+import antafes.utilities.ConfigurationInterface;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holder of the active language, telling registered objects to translate their texts again when it changes.
+ * Switching the language does not require rebuilding any component.
+ *
+ * Registered objects are held strongly until they are unregistered, so objects like lambdas stay registered even
+ * if nothing else references them. Objects which are disposed have to be unregistered. Updates run on the event
+ * dispatch thread. Components which are not showing are skipped and updated as soon as they are shown, so a switch only
+ * touches the visible part of the interface.
+ *
+ * @author Marian Pollzien
+ */
+public class LanguageManager
+{
+    private final ConfigurationInterface configuration;
+    private final AtomicReference<LanguageInterface> active = new AtomicReference<>();
+    /**
+     * Registered objects and the language they have been translated with last, null if not translated yet.
+     */
+    private final Map<Translatable, LanguageInterface> translatables = new LinkedHashMap<>();
+    private final HierarchyListener showingListener = this::showingChanged;
+
+    /**
+     * Create a manager using the language selected in the given configuration.
+     *
+     * @param configuration The configuration
+     */
+    public LanguageManager(ConfigurationInterface configuration)
+    {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Get the manager of the configuration returned by {@link ConfigurationFactory#getConfiguration()}.
+     *
+     * @return The shared manager
+     */
+    public static LanguageManager getInstance()
+    {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Get the active language. Until a language has been set, this is the one selected in the configuration.
+     *
+     * @return The active language object
+     */
+    public LanguageInterface getLanguage()
+    {
+        LanguageInterface language = this.active.get();
+
+        if (language == null) {
+            this.active.compareAndSet(null, this.configuration.getLanguageObject());
+            language = this.active.get();
+        }
+
+        return language;
+    }
+
+    /**
+     * Select a language in the configuration and make it the active language.
+     *
+     * @param language The language to select
+     */
+    public void selectLanguage(ConfigurationInterface.LanguageInterface language)
+    {
+        this.configuration.setLanguage(language);
+        this.setLanguage(this.configuration.getLanguageObject());
+    }
+
+    /**
+     * Make the given language object the active language and update all registered objects.
+     *
+     * @param language The language object
+     */
+    public void setLanguage(LanguageInterface language)
+    {
+        if (language == null || this.active.getAndSet(language) == language) {
+            return;
+        }
+
+        runOnEventDispatchThread(this::updateAll);
+    }
+
+    /**
+     * Register an object to be updated whenever the active language changes. The object is updated with the active
+     * language right away, components only once they are showing. The manager keeps a reference to the object until
+     * {@link #unregister(Translatable)} is called.
+     *
+     * @param translatable The object to update
+     */
+    public void register(Translatable translatable)
+    {
+        synchronized (this.translatables) {
+            if (this.translatables.containsKey(translatable)) {
+                return;
+            }
+
+            this.translatables.put(translatable, null);
+        }
+
+        if (translatable instanceof Component) {
+            ((Component) translatable).addHierarchyListener(this.showingListener);
+        }
+
+        runOnEventDispatchThread(() -> this.update(translatable));
+    }
+
+    /**
+     * Stop updating an object and release the reference to it.
+     *
+     * @param translatable The object
+     */
+    public void unregister(Translatable translatable)
+    {
+        synchronized (this.translatables) {
+            this.translatables.remove(translatable);
+        }
+
+        if (translatable instanceof Component) {
+            ((Component) translatable).removeHierarchyListener(this.showingListener);
+        }
+    }
+
+    private void updateAll()
+    {
+        List<Translatable> translatables;
+
+        synchronized (this.translatables) {
+            translatables = new ArrayList<>(this.translatables.keySet());
+        }
+
+        for (Translatable translatable : translatables) {
+            this.update(translatable);
+        }
+    }
+
+    /**
+     * Update an object if it is showing and not yet translated with the active language.
+     */
+    private void update(Translatable translatable)
+    {
+        if (translatable instanceof Component && !((Component) translatable).isShowing()) {
+            return;
+        }
+
+        LanguageInterface language = this.getLanguage();
+
+        synchronized (this.translatables) {
+            if (!this.translatables.containsKey(translatable)
+                || this.translatables.put(translatable, language) == language
+            ) {
+                return;
+            }
+        }
+
+        translatable.updateTranslations(language);
+    }
+
+    private void showingChanged(HierarchyEvent event)
+    {
+        if ((event.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0
+            && event.getComponent() instanceof Translatable
+            && event.getComponent().isShowing()
+        ) {
+            this.update((Translatable) event.getComponent());
+        }
+    }
+
+    private static void runOnEventDispatchThread(Runnable runnable)
+    {
+        if (SwingUtilities.isEventDispatchThread()) {
+            runnable.run();
+        } else {
+            SwingUtilities.invokeLater(runnable);
+        }
+    }
+
+    private static final class Holder
+    {
+        private static final LanguageManager INSTANCE = new LanguageManager(ConfigurationFactory.getConfiguration());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.language;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+
+/**
+ * Message pattern in the syntax of {@link MessageFormat}, parsed once and safe to be used by several threads.
+ * A {@link MessageFormat} is not thread safe, so every thread formats with its own copy of the parsed format.
+ *
+ * @author Marian Pollzien
+ */
+public final class MessagePattern
+{
+    private final String pattern;
+    private final ThreadLocal<MessageFormat> format;
+
+    private MessagePattern(String pattern, MessageFormat format)
+    {
+        this.pattern = pattern;
+        this.format = ThreadLocal.withInitial(() -> (MessageFormat) format.clone());
+    }
+
+    /**
+     * Parse a pattern.
+     *
+     * @param pattern The pattern
+     * @param locale  Locale used for formatting numbers and dates
+     *
+     * @return The parsed pattern
+     *
+     * @throws IllegalArgumentException If the pattern is malformed
+     */
+    public static MessagePattern compile(String pattern, Locale locale)
+    {
+        return new MessagePattern(pattern, new MessageFormat(pattern, locale));
+    }
+
+    /**
+     * Format the pattern with the given arguments.
+     *
+     * @param arguments The arguments
+     *
+     * @return The formatted message
+     *
+     * @throws IllegalArgumentException If an argument doesn't fit its format
+     */
+    public String format(Object... arguments)
+    {
+        return this.format.get().format(arguments);
+    }
+
+    /**
+     * Get the pattern.
+     *
+     * @return The unparsed pattern
+     */
+    public String getPattern()
+    {
+        return this.pattern;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.pattern;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.language;
+
+import java.util.Locale;
+
+/**
+ * Language only defined by its translation bundle, so further languages don't need their own class.
+ *
+ * @author Marian Pollzien
+ */
+public class ResourceLanguage extends Language {
+    /**
+     * Create a new language object using the translation bundle of the given locale.
+     *
+     * @param locale Locale of the translation bundle
+     */
+    public ResourceLanguage(Locale locale) {
+        super(locale);
+    }
+
+    /**
+     * Get the language.
+     *
+     * @return The english name of the language
+     */
+    @Override
+    public String getLanguage() {
+        return this.getLocale().getDisplayLanguage(Locale.ENGLISH);
+    }
+}
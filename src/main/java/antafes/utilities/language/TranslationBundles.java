@@ -0,0 +1,184 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.language;
+
+import antafes.utilities.Utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loader of the translation bundles in the "language" resource folder, e.g. "language/de.properties".
+ * Bundles are UTF-8 encoded properties files. They are parsed on first use and kept as one {@link TranslationTable}
+ * per locale, so only languages actually used are kept in memory.
+ * Keys missing in a bundle are taken from the more general ones, for "de_AT" the bundles "de_AT", "de" and "en" are
+ * used in this order.
+ *
+ * @author Marian Pollzien
+ */
+public final class TranslationBundles
+{
+    private static final String FOLDER = "language/";
+    private static final Locale FALLBACK = Locale.ENGLISH;
+
+    private static final ConcurrentHashMap<Locale, TranslationTable> TABLES = new ConcurrentHashMap<>();
+
+    private TranslationBundles()
+    {
+    }
+
+    /**
+     * Get all translations of a locale, including the ones of its fallback bundles.
+     *
+     * @param locale The locale
+     *
+     * @return New map of keys and translations
+     */
+    public static Map<String, String> get(Locale locale)
+    {
+        return getTable(locale).toMap();
+    }
+
+    /**
+     * Get the table of all translations of a locale, including the ones of its fallback bundles. The table is
+     * shared by all users of the locale.
+     *
+     * @param locale The locale
+     *
+     * @return Translation table
+     */
+    public static TranslationTable getTable(Locale locale)
+    {
+        return TABLES.computeIfAbsent(locale, TranslationBundles::load);
+    }
+
+    /**
+     * Get the names of the bundles used for a locale, the most specific first.
+     *
+     * @param locale The locale
+     *
+     * @return List of bundle names
+     */
+    public static List<String> getFallbackChain(Locale locale)
+    {
+        List<String> chain = new ArrayList<>();
+
+        if (!locale.getVariant().isEmpty()) {
+            chain.add(locale.getLanguage() + "_" + locale.getCountry() + "_" + locale.getVariant());
+        }
+
+        if (!locale.getCountry().isEmpty()) {
+            chain.add(locale.getLanguage() + "_" + locale.getCountry());
+        }
+
+        if (!locale.getLanguage().isEmpty()) {
+            chain.add(locale.getLanguage());
+        }
+
+        if (!chain.contains(FALLBACK.getLanguage())) {
+            chain.add(FALLBACK.getLanguage());
+        }
+
+        return chain;
+    }
+
+    /**
+     * Get the keys translated by the bundles of a locale itself, without the keys only taken from the fallback
+     * bundle. The bundles are parsed again on every call.
+     *
+     * @param locale The locale
+     *
+     * @return Set of keys
+     */
+    static Set<String> getOwnKeys(Locale locale)
+    {
+        List<String> chain = getFallbackChain(locale);
+        Set<String> keys = new HashSet<>();
+
+        if (!locale.getLanguage().equals(FALLBACK.getLanguage())) {
+            chain.remove(FALLBACK.getLanguage());
+        }
+
+        for (String name : chain) {
+            keys.addAll(parse(name).keySet());
+        }
+
+        return keys;
+    }
+
+    private static TranslationTable load(Locale locale)
+    {
+        List<String> chain = getFallbackChain(locale);
+        Map<String, String> translations = new HashMap<>();
+
+        // Start with the most general bundle, so the specific ones override it.
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            translations.putAll(parse(chain.get(i)));
+        }
+
+        return TranslationTable.of(translations);
+    }
+
+    private static Map<String, String> parse(String name)
+    {
+        String path = FOLDER + name + ".properties";
+        Properties properties = new Properties();
+
+        try (InputStream inputStream = Utilities.getFileInJar(path)) {
+            if (inputStream == null) {
+                return Collections.emptyMap();
+            }
+
+            try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            Logger.getLogger(TranslationBundles.class.getName()).log(Level.WARNING, "Unable to load " + path, ex);
+
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> translations = new HashMap<>();
+
+        for (String key : properties.stringPropertyNames()) {
+            translations.put(key, properties.getProperty(key));
+        }
+
+        return translations;
+    }
+}
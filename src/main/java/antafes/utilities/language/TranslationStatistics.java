@@ -0,0 +1,237 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.language;
+
+import antafes.utilities.ConfigurationInterface;
+import antafes.utilities.LanguageRegistry;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Optional statistics of the translations used at runtime. Once enabled, every translation counts a hit of its key
+ * and every key a language does not translate itself is logged, but only the first time per language. Keys only
+ * translated by the English fallback bundle count as missing.
+ * At most {@value #MAX_KEYS} keys are counted and logged as missing per language, so keys built at runtime can't
+ * let the statistics grow without bounds. Further keys are ignored.
+ * The completeness report lists the keys each language lacks compared to all known keys.
+ * While disabled, translating costs a single volatile read more.
+ *
+ * @author Marian Pollzien
+ */
+public final class TranslationStatistics
+{
+    /**
+     * Maximum number of keys counted and of missing keys kept per language.
+     */
+    public static final int MAX_KEYS = 10_000;
+
+    private static final Logger LOGGER = Logger.getLogger(TranslationStatistics.class.getName());
+
+    private static volatile boolean enabled = false;
+    private static final ConcurrentHashMap<String, LongAdder> HITS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Set<String>> MISSING = new ConcurrentHashMap<>();
+
+    private TranslationStatistics()
+    {
+    }
+
+    /**
+     * Enable or disable the statistics. Collected data is kept when disabling.
+     *
+     * @param enabled Whether translations should be counted
+     */
+    public static void setEnabled(boolean enabled)
+    {
+        TranslationStatistics.enabled = enabled;
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Record a translation.
+     *
+     * @param language The language translating
+     * @param key      The translated key
+     * @param found    Whether the language translates the key itself, not only by its fallback bundle
+     */
+    static void record(LanguageInterface language, String key, boolean found)
+    {
+        LongAdder hits = HITS.get(key);
+
+        if (hits == null && HITS.size() < MAX_KEYS) {
+            hits = HITS.computeIfAbsent(key, k -> new LongAdder());
+        }
+
+        if (hits != null) {
+            hits.increment();
+        }
+
+        if (!found) {
+            String name = language.getLanguage();
+            Set<String> missing = MISSING.get(name);
+
+            if (missing == null) {
+                missing = MISSING.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
+            }
+
+            if (missing.size() < MAX_KEYS && missing.add(key)) {
+                LOGGER.warning("Missing translation of \"" + key + "\" in " + name);
+            }
+        }
+    }
+
+    /**
+     * Get the number of translations of a key since the statistics were enabled or reset.
+     *
+     * @param key The key
+     *
+     * @return Number of translations
+     */
+    public static long getHits(String key)
+    {
+        LongAdder hits = HITS.get(key);
+
+        return hits == null ? 0 : hits.sum();
+    }
+
+    /**
+     * Get the number of translations of all keys translated so far.
+     *
+     * @return Map of keys and hits, the most used key first
+     */
+    public static Map<String, Long> getHitCounts()
+    {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>();
+
+        for (Map.Entry<String, LongAdder> entry : HITS.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().sum()));
+        }
+
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Long> entry : entries) {
+            counts.put(entry.getKey(), entry.getValue());
+        }
+
+        return counts;
+    }
+
+    /**
+     * Get the keys translated without success so far.
+     *
+     * @return Map of language names and the keys missing in them
+     */
+    public static Map<String, SortedSet<String>> getMissingKeys()
+    {
+        Map<String, SortedSet<String>> missing = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Set<String>> entry : MISSING.entrySet()) {
+            missing.put(entry.getKey(), Collections.unmodifiableSortedSet(new TreeSet<>(entry.getValue())));
+        }
+
+        return missing;
+    }
+
+    /**
+     * Drop all collected hits and missing keys. Missing keys are logged again afterwards.
+     */
+    public static void reset()
+    {
+        HITS.clear();
+        MISSING.clear();
+    }
+
+    /**
+     * Compare the translations of all languages of the {@link LanguageRegistry}. Languages whose language object is
+     * not a {@link Language} are left out.
+     *
+     * @return Map of language names and the keys missing in them
+     */
+    public static Map<String, SortedSet<String>> getCompletenessReport()
+    {
+        List<Language> languages = new ArrayList<>();
+
+        for (ConfigurationInterface.LanguageInterface language : LanguageRegistry.getLanguages()) {
+            LanguageInterface languageObject = LanguageRegistry.createLanguageObject(language);
+
+            if (languageObject instanceof Language) {
+                languages.add((Language) languageObject);
+            }
+        }
+
+        return getCompletenessReport(languages);
+    }
+
+    /**
+     * Compare the translations of the given languages. Known keys are the generated translation keys and all keys
+     * translated by any of the languages. Keys a language only takes from the fallback bundle count as missing.
+     *
+     * @param languages The languages to compare
+     *
+     * @return Map of language names and the keys missing in them
+     */
+    public static Map<String, SortedSet<String>> getCompletenessReport(Collection<? extends Language> languages)
+    {
+        List<Set<String>> ownKeys = new ArrayList<>();
+        Set<String> known = new HashSet<>();
+
+        for (TranslationKey key : TranslationKey.values()) {
+            known.add(key.getKey());
+        }
+
+        for (Language language : languages) {
+            Set<String> keys = language.getOwnKeys();
+            ownKeys.add(keys);
+            known.addAll(keys);
+        }
+
+        Map<String, SortedSet<String>> report = new LinkedHashMap<>();
+
+        int index = 0;
+
+        for (Language language : languages) {
+            SortedSet<String> missing = new TreeSet<>(known);
+            missing.removeAll(ownKeys.get(index++));
+            report.put(language.getLanguage(), Collections.unmodifiableSortedSet(missing));
+        }
+
+        return report;
+    }
+}
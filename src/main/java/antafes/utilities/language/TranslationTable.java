@@ -0,0 +1,208 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.language;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable table of translations. Keys and values are kept in two parallel arrays addressed by open addressing, so
+ * a lookup neither allocates nor follows entry objects. All strings are interned, so keys present in every language
+ * and repeated values are stored only once without any lock shared by all tables. Keys or translations being null
+ * are skipped.
+ *
+ * @author Marian Pollzien
+ */
+public final class TranslationTable
+{
+    /**
+     * Table without any translations.
+     */
+    public static final TranslationTable EMPTY = new TranslationTable(new HashMap<>());
+
+    private final String[] keys;
+    private final String[] values;
+    private final int[] hashes;
+    private final int size;
+
+    private TranslationTable(Map<String, String> translations)
+    {
+        int capacity = Integer.highestOneBit(Math.max(translations.size(), 1) * 2 - 1) << 1;
+        int mask = capacity - 1;
+        this.keys = new String[capacity];
+        this.values = new String[capacity];
+        this.hashes = new int[capacity];
+        int size = 0;
+
+        for (Map.Entry<String, String> entry : translations.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                continue;
+            }
+
+            int hash = spread(entry.getKey().hashCode());
+            int slot = hash & mask;
+
+            while (this.keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+
+            this.keys[slot] = entry.getKey().intern();
+            this.values[slot] = entry.getValue().intern();
+            this.hashes[slot] = hash;
+            size++;
+        }
+
+        this.size = size;
+    }
+
+    /**
+     * Create a table holding the given translations.
+     *
+     * @param translations Map of keys and translations
+     *
+     * @return The table
+     */
+    public static TranslationTable of(Map<String, String> translations)
+    {
+        return translations.isEmpty() ? EMPTY : new TranslationTable(translations);
+    }
+
+    /**
+     * Get the translation of a key.
+     *
+     * @param key The key, may be null
+     *
+     * @return The translation or null if the key is unknown or null
+     */
+    public String get(String key)
+    {
+        return this.get(key, null);
+    }
+
+    /**
+     * Get the translation of a key.
+     *
+     * @param key          The key, may be null
+     * @param defaultValue Value returned for unknown keys
+     *
+     * @return The translation or the default value
+     */
+    public String get(String key, String defaultValue)
+    {
+        if (key == null) {
+            return defaultValue;
+        }
+
+        int hash = spread(key.hashCode());
+        int mask = this.keys.length - 1;
+
+        for (int slot = hash & mask; this.keys[slot] != null; slot = (slot + 1) & mask) {
+            if (this.hashes[slot] == hash && (this.keys[slot] == key || this.keys[slot].equals(key))) {
+                return this.values[slot];
+            }
+        }
+
+        return defaultValue;
+    }
+
+    /**
+     * Check whether a key is known.
+     *
+     * @param key The key
+     *
+     * @return True if the table contains a translation of the key
+     */
+    public boolean containsKey(String key)
+    {
+        return this.get(key) != null;
+    }
+
+    /**
+     * Get the number of translations.
+     *
+     * @return Number of translations
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Copy all translations into a new map.
+     *
+     * @return Mutable map of keys and translations
+     */
+    public HashMap<String, String> toMap()
+    {
+        HashMap<String, String> map = new HashMap<>();
+
+        for (int slot = 0; slot < this.keys.length; slot++) {
+            if (this.keys[slot] != null) {
+                map.put(this.keys[slot], this.values[slot]);
+            }
+        }
+
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof TranslationTable)) {
+            return false;
+        }
+
+        TranslationTable table = (TranslationTable) other;
+
+        return this.size == table.size && this.toMap().equals(table.toMap());
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hash = 0;
+
+        for (int slot = 0; slot < this.keys.length; slot++) {
+            if (this.keys[slot] != null) {
+                hash += this.keys[slot].hashCode() ^ this.values[slot].hashCode();
+            }
+        }
+
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.getClass().getSimpleName() + this.toMap();
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * This file is part of Utilities.
+ *
+ * Utilities is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Utilities is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Utilities. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * @package Utilities
+ * @author Marian Pollzien <map@wafriv.de>
+ * @copyright (c) 2024, Marian Pollzien
+ * @license https://www.gnu.org/licenses/lgpl.html LGPLv3
+ */
+
+package antafes.utilities.language;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the output of {@link MessagePattern} with the one of {@link MessageFormat}. Failing patterns have to fail
+ * with the same exception.
+ *
+ * @author Marian Pollzien
+ */
+class MessagePatternTest
+{
+    private static final Locale[] LOCALES = {Locale.ENGLISH, Locale.GERMAN};
+    private static final Object[][] ARGUMENTS = {
+        {},
+        {null},
+        {null, null},
+        {0},
+        {1},
+        {3, "x"},
+        {-1},
+        {1.5, "y"},
+        {12345.678},
+        {Long.MAX_VALUE},
+        {"text"},
+        {new Date(0)},
+    };
+
+    @ParameterizedTest
+    @MethodSource("quoting")
+    void formatsQuotingLikeMessageFormat(String pattern, Locale locale, Object[] arguments)
+    {
+        assertSameAsMessageFormat(pattern, locale, arguments);
+    }
+
+    @ParameterizedTest
+    @MethodSource("choices")
+    void formatsChoicesLikeMessageFormat(String pattern, Locale locale, Object[] arguments)
+    {
+        assertSameAsMessageFormat(pattern, locale, arguments);
+    }
+
+    @ParameterizedTest
+    @MethodSource("numbers")
+    void formatsNumbersLikeMessageFormat(String pattern, Locale locale, Object[] arguments)
+    {
+        assertSameAsMessageFormat(pattern, locale, arguments);
+    }
+
+    @ParameterizedTest
+    @MethodSource("dates")
+    void formatsDatesLikeMessageFormat(String pattern, Locale locale, Object[] arguments)
+    {
+        assertSameAsMessageFormat(pattern, locale, arguments);
+    }
+
+    @ParameterizedTest
+    @MethodSource("malformed")
+    void failsLikeMessageFormat(String pattern, Locale locale, Object[] arguments)
+    {
+        assertSameAsMessageFormat(pattern, locale, arguments);
+    }
+
+    static Stream<Arguments> quoting()
+    {
+        return combine(
+            "plain text",
+            "{0}",
+            "'{0}'",
+            "it''s {0}",
+            "'it''s' {0}",
+            "'{'{0}'}'",
+            "''",
+            "'{0}",
+            "x'",
+            "a {1} b {0}",
+            "{1}{0}{1}"
+        );
+    }
+
+    static Stream<Arguments> choices()
+    {
+        return combine(
+            "{0,choice,0#none|1#one}",
+            "{0,choice,0#none|1#one|1<{0,number,integer} many}",
+            "{0,choice,-1#neg|0#zero|1#one}",
+            "{0,choice,0#'{'zero'}'|1#x {1}}",
+            "{0,choice,0#a|1#b'|'c}",
+            "{0,choice,0#a|1#{1,number,percent}}",
+            "{0,choice,1#one|2#{0} more '{1}'}",
+            "{0,choice,}"
+        );
+    }
+
+    static Stream<Arguments> numbers()
+    {
+        return combine(
+            "{0,number}",
+            "{0, number , integer}",
+            "{0,number,integer}",
+            "{0,number,percent}",
+            "{0,number,currency}",
+            "{0,number,#.##}",
+            "{0,number,#'#'}",
+            "{0,number,00.#;(00.#)}",
+            "{0,number}{0}"
+        );
+    }
+
+    static Stream<Arguments> dates()
+    {
+        return combine(
+            "{0,date}",
+            "{0,date,short}",
+            "{0,date,full}",
+            "{0,date,yyyy-MM}",
+            "{0,time}",
+            "{0,time,short} {1}"
+        );
+    }
+
+    static Stream<Arguments> malformed()
+    {
+        return combine(
+            "{",
+            "{0",
+            "}",
+            "{a}",
+            "{-1}",
+            "{ 0 }",
+            "{0,foo}",
+            "{0,number,integer,x}",
+            "{0,choice,x#y}"
+        );
+    }
+
+    private static Stream<Arguments> combine(String... patterns)
+    {
+        List<Arguments> combinations = new ArrayList<>();
+
+        for (String pattern : patterns) {
+            for (Locale locale : LOCALES) {
+                for (Object[] arguments : ARGUMENTS) {
+                    combinations.add(Arguments.of(pattern, locale, arguments));
+                }
+            }
+        }
+
+        return combinations.stream();
+    }
+
+    private static void assertSameAsMessageFormat(String pattern, Locale locale, Object[] arguments)
+    {
+        assertEquals(
+            formatWithMessageFormat(pattern, locale, arguments),
+            formatWithMessagePattern(pattern, locale, arguments),
+            pattern + " " + locale + " " + Arrays.deepToString(arguments)
+        );
+    }
+
+    private static String formatWithMessageFormat(String pattern, Locale locale, Object[] arguments)
+    {
+        try {
+            return new MessageFormat(pattern, locale).format(arguments);
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+
+    private static String formatWithMessagePattern(String pattern, Locale locale, Object[] arguments)
+    {
+        try {
+            return MessagePattern.compile(pattern, locale).format(arguments);
+        } catch (RuntimeException e) {
+            return e.getClass().getName();
+        }
+    }
+}